@@ -0,0 +1,17 @@
+#!/bin/bash
+# Builds the JMH benchmarks and writes results to bench/results/jmh-<timestamp>.json.
+# Extra arguments go to JMH, e.g. ./bench/run_bench.sh BoardBenchmark -p size=500
+
+cd "$(dirname "$0")/.." || exit 1
+
+echo "Building benchmarks..."
+mvn -B -q package
+if [ $? -ne 0 ]; then
+    echo "Build failed!"
+    exit 1
+fi
+
+mkdir -p bench/results
+OUT="bench/results/jmh-$(date +%Y%m%d-%H%M%S).json"
+java -jar bench/target/benchmarks.jar -rf json -rff "$OUT" "$@"
+echo "📍 Results saved to $OUT"
@@ -0,0 +1,47 @@
+package game;
+
+import java.util.SplittableRandom;
+
+/** Deterministic boards and mid-game positions shared by the benchmarks. */
+final class BenchBoards {
+    private BenchBoards() {
+    }
+
+    static Tester.BoardData generate(int size, long seed) {
+        return InstanceGenerator.generate(size, seed);
+    }
+
+    static Board newBoard(Tester.BoardData data) {
+        return new Board(data.grid, data.startRow, data.startCol);
+    }
+
+    /**
+     * {@code count} positions taken along seeded random walks from the start, so
+     * the move-generation benchmarks see partly visited boards instead of only
+     * the untouched opening position.
+     */
+    static Board[] positions(Tester.BoardData data, int count, long seed) {
+        SplittableRandom rand = new SplittableRandom(seed);
+        Board[] positions = new Board[count];
+        Board walk = newBoard(data);
+        for (int i = 0; i < count; i++) {
+            if (walk.isGameOver()) {
+                walk = newBoard(data);
+            }
+            int steps = 1 + rand.nextInt(8);
+            for (int s = 0; s < steps && !walk.isGameOver(); s++) {
+                walk.applyMove(randomLegal(walk.legalMoveMask(), rand));
+            }
+            positions[i] = new Board(walk);
+        }
+        return positions;
+    }
+
+    private static int randomLegal(int mask, SplittableRandom rand) {
+        int pick = rand.nextInt(Integer.bitCount(mask));
+        for (int d = 0; d < 8; d++) {
+            if ((mask & (1 << d)) != 0 && pick-- == 0) return d;
+        }
+        throw new IllegalStateException("Empty move mask");
+    }
+}
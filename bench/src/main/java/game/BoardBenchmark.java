@@ -0,0 +1,137 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-operation costs of the Board hot paths, measured over a rotating set of
+ * mid-game positions (see {@link BenchBoards#positions}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+    private static final int POSITIONS = 256;
+
+    @Param({"10", "25", "50", "500"})
+    public int size;
+
+    private Board[] positions;
+    private Board[] tracked;      // Copies of positions with out-degrees already built
+    private int[] legalDirection; // One legal direction per position, or -1 when it is stuck
+    private int next;
+
+    @Setup
+    public void setUp() {
+        positions = BenchBoards.positions(BenchBoards.generate(size, 42L * size), POSITIONS, size);
+        legalDirection = new int[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            int mask = positions[i].legalMoveMask();
+            legalDirection[i] = mask == 0 ? -1 : Integer.numberOfTrailingZeros(mask);
+        }
+        tracked = new Board[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            tracked[i] = new Board(positions[i]);
+            tracked[i].outDegree(0, 0);
+        }
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = (i + 1) & (POSITIONS - 1);
+        return i;
+    }
+
+    @Benchmark
+    public Object getPossibleMoves() {
+        return positions[nextIndex()].getPossibleMoves();
+    }
+
+    @Benchmark
+    public void canMoveInDirection(Blackhole bh) {
+        Board board = positions[nextIndex()];
+        for (int d = 0; d < 8; d++) {
+            bh.consume(board.canMoveInDirection(d));
+        }
+    }
+
+    @Benchmark
+    public int legalMoveMask() {
+        return positions[nextIndex()].legalMoveMask();
+    }
+
+    /** The mask of a position that has just changed, i.e. the uncached cost. */
+    @Benchmark
+    public int legalMoveMaskAfterMove() {
+        int i = nextIndex();
+        Board board = positions[i];
+        long undo = board.makeMove(Math.max(legalDirection[i], 0));
+        int mask = board.legalMoveMask();
+        if (undo != Board.ILLEGAL_MOVE) {
+            board.undoMove(undo);
+        }
+        return mask;
+    }
+
+    /** Fewest-exits choice read from the incrementally maintained out-degrees. */
+    @Benchmark
+    public int outDegreeOfTargets() {
+        Board board = tracked[nextIndex()];
+        JumpGraph graph = board.getJumpGraph();
+        int cell = board.getPlayerRow() * size + board.getPlayerCol();
+        int fewest = Integer.MAX_VALUE;
+        for (int m = board.legalMoveMask(); m != 0; m &= m - 1) {
+            int target = graph.target(cell, Integer.numberOfTrailingZeros(m));
+            fewest = Math.min(fewest, board.outDegree(target / size, target % size));
+        }
+        return fewest;
+    }
+
+    /** makeMove + undoMove on the same position, the pair a search does per node. */
+    @Benchmark
+    public long makeUndoMove() {
+        int i = nextIndex();
+        return makeUndo(positions[i], legalDirection[i]);
+    }
+
+    /** The same with out-degrees being maintained, the price of {@link Board#outDegree}. */
+    @Benchmark
+    public long makeUndoMoveTracked() {
+        int i = nextIndex();
+        return makeUndo(tracked[i], legalDirection[i]);
+    }
+
+    private static long makeUndo(Board board, int direction) {
+        long undo = board.makeMove(Math.max(direction, 0));
+        if (undo != Board.ILLEGAL_MOVE) {
+            board.undoMove(undo);
+        }
+        return undo;
+    }
+
+    /** What a player that copies before trying a move pays: Board(Board) + applyMove(Move). */
+    @Benchmark
+    public boolean copyAndApplyMove() {
+        int i = nextIndex();
+        Board copy = new Board(positions[i]);
+        return legalDirection[i] >= 0 && copy.applyMove(Move.of(legalDirection[i]));
+    }
+
+    /** The same through a copy-on-write fork, which copies only the rows the move touches. */
+    @Benchmark
+    public boolean forkAndApplyMove() {
+        int i = nextIndex();
+        Board fork = positions[i].fork();
+        return legalDirection[i] >= 0 && fork.applyMove(Move.of(legalDirection[i]));
+    }
+
+    @Benchmark
+    public Board copyConstructor() {
+        return new Board(positions[nextIndex()]);
+    }
+}
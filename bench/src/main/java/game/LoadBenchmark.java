@@ -0,0 +1,46 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/** Loading a board file the way Tester does, in both on-disk formats. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+    @Param({"10", "25", "50", "500"})
+    public int size;
+
+    @Param({"text", "binary"})
+    public String format;
+
+    private File file;
+
+    @Setup
+    public void setUp() throws IOException {
+        Tester.BoardData data = BenchBoards.generate(size, 7L * size);
+        file = File.createTempFile("board_" + size + "_", "." + format);
+        file.deleteOnExit();
+        if (format.equals("binary")) {
+            BoardFormat.writeBinary(file.getPath(), data);
+        } else {
+            BoardFormat.writeText(file.getPath(), data);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public Tester.BoardData loadBoardData() throws IOException {
+        return Tester.loadBoardData(file.getPath());
+    }
+}
@@ -0,0 +1,41 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+import players.Player67890;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Complete games by the random Player67890, from construction to getting
+ * stuck, with the same nextMove/applyMove loop Referee runs (minus the timing
+ * thread). Player67890 draws from an unseeded Random, so game lengths vary
+ * between invocations; compare runs by their averages.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayoutBenchmark {
+    @Param({"10", "25", "50", "500"})
+    public int size;
+
+    private Tester.BoardData data;
+
+    @Setup
+    public void setUp() {
+        data = BenchBoards.generate(size, 11L * size);
+    }
+
+    @Benchmark
+    public int randomPlayout() {
+        Board board = BenchBoards.newBoard(data);
+        Player player = new Player67890(board);
+        while (!board.isGameOver()) {
+            Move move = player.nextMove();
+            if (move == null || !board.applyMove(move)) break;
+        }
+        return board.getStepCount();
+    }
+}
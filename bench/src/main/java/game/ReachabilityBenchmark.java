@@ -0,0 +1,87 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costs of {@link ReachabilityAnalyzer} on the mid-game positions of
+ * {@link BoardBenchmark}: following a move with push/pop, the capped lower
+ * bound a solver tests at every node, and a full component analysis.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReachabilityBenchmark {
+    private static final int POSITIONS = 256;
+
+    @Param({"10", "25", "50", "500"})
+    public int size;
+
+    private Board[] positions;
+    private ReachabilityAnalyzer[] analyzers;
+    private int[] legalDirection; // One legal direction per position, or -1 when it is stuck
+    private int next;
+
+    @Setup
+    public void setUp() {
+        positions = BenchBoards.positions(BenchBoards.generate(size, 42L * size), POSITIONS, size);
+        analyzers = new ReachabilityAnalyzer[POSITIONS];
+        legalDirection = new int[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            analyzers[i] = new ReachabilityAnalyzer(positions[i]);
+            int mask = positions[i].legalMoveMask();
+            legalDirection[i] = mask == 0 ? -1 : Integer.numberOfTrailingZeros(mask);
+        }
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = (i + 1) & (POSITIONS - 1);
+        return i;
+    }
+
+    /** Compare with BoardBenchmark.makeUndoMove for the analyzer's share. */
+    @Benchmark
+    public long makeUndoMoveWithPushPop() {
+        int i = nextIndex();
+        if (legalDirection[i] < 0) return 0;
+        long undo = positions[i].makeMove(legalDirection[i]);
+        analyzers[i].push();
+        positions[i].undoMove(undo);
+        analyzers[i].pop();
+        return undo;
+    }
+
+    @Benchmark
+    public int lowerBoundCappedAt3() {
+        return analyzers[nextIndex()].lowerBound(3);
+    }
+
+    @Benchmark
+    public int lowerBound() {
+        return analyzers[nextIndex()].lowerBound();
+    }
+
+    /** Components, dead cells and the trap bound of a position just reached. */
+    @Benchmark
+    public int analyzeAfterMove() {
+        int i = nextIndex();
+        if (legalDirection[i] < 0) return 0;
+        long undo = positions[i].makeMove(legalDirection[i]);
+        analyzers[i].push();
+        int bound = analyzers[i].maxMovesLeft() + analyzers[i].getDeadCount();
+        positions[i].undoMove(undo);
+        analyzers[i].pop();
+        return bound;
+    }
+
+    @Benchmark
+    public Object copyFor() {
+        int i = nextIndex();
+        return analyzers[i].copyFor(positions[i]);
+    }
+}
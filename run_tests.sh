@@ -2,8 +2,9 @@
 
 NUM_BOARDS=10  # 🟢 Parametric: number of boards per size
 
+# Boards and cache/ survive reruns, so unchanged (player, board) games are not played again
 echo "Cleaning old results..."
-rm -rf results/* snapshots/* boards/*
+rm -f results/Player*.log results/TotalScores.txt
 
 echo "Compiling Java..."
 javac -d bin src/game/*.java src/players/*.java
@@ -12,66 +13,23 @@ if [ $? -ne 0 ]; then
     exit 1
 fi
 
-echo "Generating boards..."
 mkdir -p boards snapshots results
 
 # ✅ Define board sizes to test
-BOARD_SIZES=(10 25 50)
-
-for size in "${BOARD_SIZES[@]}"; do
-    for ((i = 1; i <= NUM_BOARDS; i++)); do
-        java -cp bin game.InstanceGenerator "boards/board_${size}x${size}_$i.dat" $size
-    done
-done
+BOARD_SIZES="10,25,50"
+# 🔁 Same seed, same boards: rerun with MASTER_SEED=<seed> ./run_tests.sh to reproduce a corpus
+if [ -z "$MASTER_SEED" ] && [ -f boards/manifest.txt ]; then
+    echo "Reusing boards/ (set MASTER_SEED=<seed> for a new corpus)"
+else
+    echo "Generating boards..."
+    MASTER_SEED=${MASTER_SEED:-$RANDOM$RANDOM}
+    rm -f boards/*.dat boards/manifest.txt snapshots/*
+    # One JVM generates every board in parallel; boards/manifest.txt records each board's seed
+    java -cp bin game.InstanceGenerator corpus boards "$MASTER_SEED" "$BOARD_SIZES" $NUM_BOARDS
+fi
 
 echo "Running tests..."
-> results/TotalScores.txt
-
-while IFS= read -r studentID; do
-    totalPercentage=0
-    playerLogFile="results/Player${studentID}.log"
-    > "$playerLogFile"
-
-    for size in "${BOARD_SIZES[@]}"; do
-        for ((i = 1; i <= NUM_BOARDS; i++)); do
-            boardFile="boards/board_${size}x${size}_$i.dat"
-            echo "Testing $studentID on $boardFile..."
-
-            # ⏱️ Compute timeout dynamically per board size (capped at 300 seconds)
-            timeoutSeconds=$(awk "BEGIN { t = (0.4 * $size * $size) + 2; print (t > 300 ? 300 : int(t)) }")
-
-            output=$(timeout ${timeoutSeconds}s java -cp bin game.Tester "$boardFile" "$studentID")
-            exit_code=$?
-
-            score=1
-            percentage=0.00
-
-            if [ $exit_code -eq 0 ]; then
-                score_line=$(echo "$output" | tail -n 1)
-                yourSteps=$(echo "$score_line" | awk '{print $2}')
-                minSteps=$(echo "$score_line" | awk '{print $4}')
-
-                if [[ "$yourSteps" =~ ^[0-9]+$ ]] && [[ "$minSteps" =~ ^[0-9]+$ ]]; then
-                    movePenalty=$((minSteps - yourSteps))
-                    rawScore=$((100 - 5 * movePenalty))
-                    if [ $rawScore -lt 0 ]; then rawScore=0; fi
-                    percentage=$rawScore
-                    echo "$size x $size - Game $i: YourSteps=$yourSteps, MinSteps=$minSteps → Score=$rawScore%" >> "$playerLogFile"
-                else
-                    echo "$size x $size - Game $i: invalid output ($score_line)" >> "$playerLogFile"
-                fi
-            else
-                echo "$size x $size - Game $i: 1 move (timeout/crash) ($percentage%)" >> "$playerLogFile"
-            fi
-
-            totalPercentage=$(awk "BEGIN {print $totalPercentage + $percentage}")
-        done
-    done
-
-    totalGames=$(( ${#BOARD_SIZES[@]} * NUM_BOARDS ))
-    avgPercentage=$(awk "BEGIN {printf \"%.2f\", $totalPercentage / $totalGames}")
-    echo "$studentID $avgPercentage%" >> results/TotalScores.txt
-
-done < students.txt
-
-echo "Done! Check 'results/TotalScores.txt' and 'snapshots/' for full gameplay."
+# 🚀 One JVM runs every (student, board) game in parallel, one class loader per student.
+# Per-game limits match the old per-process timeout: 0.4 * size^2 + 2 seconds, capped at 300.
+# 🔒 Each student's code runs in its own warm worker JVM, killed and restarted if it hangs.
+java -Dstuck.playerProcesses=true -cp bin game.Tournament boards students.txt
@@ -1,46 +1,162 @@
 package game;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
-public class Board {
+/**
+ * The mutable game position. Players see it through a read-only
+ * {@link BoardView} (see {@link #view()}) and search on {@link #fork()}s.
+ */
+public class Board implements BoardView {
+    // ✅ Direction deltas indexed like Move.getDirection(): N, S, W, E, NW, NE, SW, SE
+    static final int[] D_ROW = {-1, 1, 0, 0, -1, -1, 1, 1};
+    static final int[] D_COL = {0, 0, -1, 1, -1, 1, -1, 1};
+    private static final int WEST = 2;
+    private static final int EAST = 3;
+
+    /** Returned by {@link #makeMove(int)} when the move is not legal. */
+    public static final long ILLEGAL_MOVE = -1L;
+
     private final int size;
-    private final int[][] grid;
-    private final boolean[][] visited;
+    private final PackedGrid grid;   // Cell values at 4 bits each, never modified after construction
+    private JumpGraph jumps;         // Static targets and steps of the grid, shared by copies; null on huge boards
+    private long[][] visited;        // One packed bitset per row: bit c of visited[r] is cell (r, c)
+    private boolean forked;          // visited (and every row in it) is shared with a fork; copy before writing
+    private boolean[] sharedRows;    // Rows still shared with a fork, or null when none are
     private int visitedCount;
     private int playerRow;
     private int playerCol;
     private int score;
     private int stepCount; // ✅ Track actual moves made
+    private long zobristKey;      // Visited cells and player cell, updated per move
+    private long zobristKeyHigh;  // Second 64 bits, only maintained in wide-hash mode
+    private boolean wideHash;
+    private int generation;         // Bumped by every make/undo, so cached answers know when they are stale
+    private int maskGeneration = -1;
+    private int cachedMask;
+    private byte[] blockedCount;    // [cell * 8 + d]: visited cells on that jump's path; null until outDegree() is used
+    private byte[] outDegrees;      // [cell]: jumps from the cell with no visited cell on their path
+    private View view;
 
     public Board(int size, int[][] grid, int startRow, int startCol) {
-        this.size = size;
+        this(PackedGrid.of(grid), startRow, startCol);
+    }
+
+    /**
+     * A board on an already packed grid, e.g. one loaded by {@link Tester#loadBoardData}.
+     * Takes about 0.6 bytes per cell, so 10,000 x 10,000 boards fit in well under 100 MB.
+     */
+    public Board(PackedGrid grid, int startRow, int startCol) {
+        this.size = grid.getSize();
         this.grid = grid;
-        this.visited = new boolean[size][size];
+        this.jumps = (long) size * size <= JumpGraph.MAX_CELLS ? JumpGraph.of(grid) : null;
+        this.visited = new long[size][wordsPerRow(size)];
         this.visitedCount = 1;
         this.playerRow = startRow;
         this.playerCol = startCol;
         this.score = 1;
         this.stepCount = 0;
 
-        visited[startRow][startCol] = true;
-        grid[startRow][startCol] = 0;
+        markVisited(startRow, startCol);
+        int start = startRow * size + startCol;
+        this.zobristKey = Zobrist.visitedKey(start) ^ Zobrist.playerKey(start);
     }
 
-    public Board(Board other) {
+    /** A deep copy of any position; {@link #fork()} is the cheaper way to branch. */
+    public Board(BoardView position) {
+        Board other = position instanceof Board ? (Board) position : position.fork();
         this.size = other.size;
-        this.grid = new int[size][size];
-        this.visited = new boolean[size][size];
+        this.grid = other.grid; // Immutable, safe to share
+        this.jumps = other.jumps;
+        this.visited = new long[size][];
         this.playerRow = other.playerRow;
         this.playerCol = other.playerCol;
         this.score = other.score;
         this.visitedCount = other.visitedCount;
         this.stepCount = other.stepCount;
+        this.zobristKey = other.zobristKey;
+        this.zobristKeyHigh = other.zobristKeyHigh;
+        this.wideHash = other.wideHash;
+        this.maskGeneration = other.maskGeneration == other.generation ? 0 : -1;
+        this.cachedMask = other.cachedMask;
+        if (other.outDegrees != null) {
+            this.blockedCount = other.blockedCount.clone();
+            this.outDegrees = other.outDegrees.clone();
+        }
 
         for (int r = 0; r < size; r++) {
-            System.arraycopy(other.grid[r], 0, this.grid[r], 0, size);
-            System.arraycopy(other.visited[r], 0, this.visited[r], 0, size);
+            this.visited[r] = other.visited[r].clone();
+        }
+    }
+
+    /**
+     * Rebuilds a position from its visited cells, packed row-major one bit per
+     * cell ({@code cells[i >>> 6]} bit {@code i} is cell {@code i = row * size + col}).
+     * Used to restore snapshot keyframes.
+     */
+    Board(PackedGrid grid, long[] cells, int playerRow, int playerCol, int stepCount) {
+        this(grid, playerRow, playerCol);
+        int player = playerRow * size + playerCol;
+        for (int i = 0; i < size * size; i++) {
+            if (i != player && (cells[i >>> 6] & (1L << i)) != 0) {
+                markVisited(i / size, i % size);
+                zobristKey ^= Zobrist.visitedKey(i);
+                visitedCount++;
+            }
+        }
+        this.stepCount = stepCount;
+        this.score = stepCount + 1;
+    }
+
+    /** Copy-on-write copy; see {@link BoardView#fork()}. Out-degrees, if in use, are copied eagerly. */
+    @Override
+    public Board fork() {
+        Board child = new Board(this, visited);
+        forked = true;
+        return child;
+    }
+
+    // Fork constructor: shares the visited rows with other
+    private Board(Board other, long[][] sharedVisited) {
+        this.size = other.size;
+        this.grid = other.grid;
+        this.jumps = other.jumps;
+        this.visited = sharedVisited;
+        this.forked = true;
+        this.playerRow = other.playerRow;
+        this.playerCol = other.playerCol;
+        this.score = other.score;
+        this.visitedCount = other.visitedCount;
+        this.stepCount = other.stepCount;
+        this.zobristKey = other.zobristKey;
+        this.zobristKeyHigh = other.zobristKeyHigh;
+        this.wideHash = other.wideHash;
+        this.maskGeneration = other.maskGeneration == other.generation ? 0 : -1;
+        this.cachedMask = other.cachedMask;
+        if (other.outDegrees != null) {
+            this.blockedCount = other.blockedCount.clone();
+            this.outDegrees = other.outDegrees.clone();
+        }
+    }
+
+    /** A live, read-only view of this board, as handed to players. */
+    public BoardView view() {
+        if (view == null) {
+            view = new View(this);
         }
+        return view;
+    }
+
+    /** The board a view reads from, or the board itself. */
+    static Board behind(BoardView position) {
+        if (position instanceof Board) return (Board) position;
+        if (position instanceof View) return ((View) position).board;
+        throw new IllegalArgumentException("Not a view of a game board: " + position);
+    }
+
+    private static int wordsPerRow(int size) {
+        return (size + 63) >>> 6;
     }
 
     public int getSize() {
@@ -56,11 +172,65 @@ public class Board {
     }
 
     public int getValueAt(int row, int col) {
-        return grid[row][col];
+        return isVisited(row, col) ? 0 : grid.get(row, col);
+    }
+
+    // The number printed on the cell, visited or not
+    int getCellValue(int row, int col) {
+        return grid.get(row, col);
+    }
+
+    PackedGrid getGrid() {
+        return grid;
+    }
+
+    /** 64-bit Zobrist key of the visited cells and the player cell. */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Upper 64 bits of the 128-bit key; only meaningful after
+     * {@link #enableWideHash()}. Use it where 64-bit collisions matter, e.g.
+     * tables holding hundreds of millions of large-board positions.
+     */
+    public long getZobristKeyHigh() {
+        return zobristKeyHigh;
+    }
+
+    /** Starts maintaining the upper 64 key bits. One O(N²) pass, then O(1) per cell again. */
+    public void enableWideHash() {
+        if (wideHash) return;
+        wideHash = true;
+        zobristKeyHigh = Zobrist.playerKeyHigh(playerRow * size + playerCol);
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                if (isVisited(r, c)) {
+                    zobristKeyHigh ^= Zobrist.visitedKeyHigh(r * size + c);
+                }
+            }
+        }
+    }
+
+    /**
+     * The static jump table of this board's grid. Built at construction unless
+     * the board has more than {@code JumpGraph.MAX_CELLS} cells, in which case
+     * the first call builds it and later moves use it too.
+     */
+    public JumpGraph getJumpGraph() {
+        if (jumps == null) {
+            jumps = JumpGraph.of(grid);
+        }
+        return jumps;
     }
 
     public boolean isGameOver() {
-        return getPossibleMoves().isEmpty();
+        return legalMoveMask() == 0;
+    }
+
+    /** Changes whenever a move is made or undone; equal values mean the position has not changed since. */
+    public int getGeneration() {
+        return generation;
     }
 
     public int getPlayerRow() {
@@ -72,47 +242,183 @@ public class Board {
     }
 
     public boolean isVisited(int row, int col) {
-        return visited[row][col];
+        return (visited[row][col >>> 6] & (1L << col)) != 0;
     }
 
-    public List<Move> getPossibleMoves() {
-        List<Move> moves = new ArrayList<>();
-        int[][] directions = {
-            {-1, 0}, {1, 0}, {0, -1}, {0, 1},
-            {-1, -1}, {-1, 1}, {1, -1}, {1, 1}
-        };
-
-        for (int[] dir : directions) {
-            int dRow = dir[0];
-            int dCol = dir[1];
-            if (canMoveInDirection(dRow, dCol)) {
-                moves.add(new Move(dRow, dCol));
+    private void markVisited(int row, int col) {
+        writableRow(row)[col >>> 6] |= 1L << col;
+    }
+
+    private void clearVisited(int row, int col) {
+        writableRow(row)[col >>> 6] &= ~(1L << col);
+    }
+
+    // The row's bitset, first copied if a fork may still read it
+    private long[] writableRow(int row) {
+        if (forked) {
+            visited = visited.clone();
+            sharedRows = new boolean[size];
+            Arrays.fill(sharedRows, true);
+            forked = false;
+        }
+        if (sharedRows != null && sharedRows[row]) {
+            visited[row] = visited[row].clone();
+            sharedRows[row] = false;
+        }
+        return visited[row];
+    }
+
+    /**
+     * Legal directions from the current position as a bitmask: bit {@code d} is set
+     * when {@code Move.of(d)} is a legal move. Allocation-free, and computed at
+     * most once per position: repeated calls between moves return the cached mask.
+     */
+    public int legalMoveMask() {
+        if (maskGeneration != generation) {
+            int mask = 0;
+            for (int d = 0; d < 8; d++) {
+                if (canMoveInDirection(d)) {
+                    mask |= 1 << d;
+                }
             }
+            cachedMask = mask;
+            maskGeneration = generation;
+        }
+        return cachedMask;
+    }
+
+    public List<Move> getPossibleMoves() {
+        int mask = legalMoveMask();
+        List<Move> moves = new ArrayList<>(Integer.bitCount(mask));
+        for (; mask != 0; mask &= mask - 1) {
+            moves.add(Move.of(Integer.numberOfTrailingZeros(mask)));
         }
         return moves;
     }
 
-    private boolean canMoveInDirection(int dRow, int dCol) {
-        int newRow = playerRow + dRow;
-        int newCol = playerCol + dCol;
+    /** Whether {@code Move.of(direction)} is legal from the current position. */
+    public boolean canMoveInDirection(int direction) {
+        if (jumps == null) {
+            return walkRay(direction);
+        }
 
-        if (!isInBounds(newRow, newCol) || visited[newRow][newCol]) {
+        // ✅ Target and step come from the table; only the path's visited bits are tested
+        int step = jumps.step(playerRow * size + playerCol, direction);
+        if (step == 0) {
             return false;
         }
+        if (direction == EAST) {
+            return !anyVisited(playerRow, playerCol + 1, playerCol + step);
+        }
+        if (direction == WEST) {
+            return !anyVisited(playerRow, playerCol - step, playerCol - 1);
+        }
+        int dRow = D_ROW[direction];
+        int dCol = D_COL[direction];
+        for (int i = 1, row = playerRow, col = playerCol; i <= step; i++) {
+            row += dRow;
+            col += dCol;
+            if (isVisited(row, col)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        int stepSize = grid[newRow][newCol];
-        int targetRow = playerRow + dRow * stepSize;
-        int targetCol = playerCol + dCol * stepSize;
+    /**
+     * Number of jumps out of {@code (row, col)} whose path has no visited cell,
+     * i.e. the moves a player standing there would have right now. Heuristics
+     * like "go where the fewest exits remain" can read it for any cell in O(1);
+     * note that it does not yet count the cells a move there would visit.
+     * <p>
+     * The first call builds the counts in O(N²); from then on every visited or
+     * unvisited cell updates the jumps passing through it, which makes moves on
+     * this board (and its copies) markedly slower. Searches that only need the
+     * current position's moves should stick to {@link #legalMoveMask()}.
+     */
+    public int outDegree(int row, int col) {
+        if (outDegrees == null) {
+            buildOutDegrees();
+        }
+        return outDegrees[row * size + col];
+    }
+
+    private void buildOutDegrees() {
+        JumpGraph graph = getJumpGraph();
+        int cells = size * size;
+        byte[] blocked = new byte[cells * 8];
+        byte[] degrees = new byte[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            for (int m = graph.staticMask(cell); m != 0; m &= m - 1) {
+                int d = Integer.numberOfTrailingZeros(m);
+                int row = cell / size, col = cell % size, count = 0;
+                for (int k = graph.step(cell, d); k > 0; k--) {
+                    row += D_ROW[d];
+                    col += D_COL[d];
+                    if (isVisited(row, col)) count++;
+                }
+                blocked[cell * 8 + d] = (byte) count;
+                if (count == 0) degrees[cell]++;
+            }
+        }
+        blockedCount = blocked;
+        outDegrees = degrees;
+    }
+
+    // Adds delta (±1) to the blocked count of every jump whose path crosses (row, col)
+    private void updateJumpsThrough(int row, int col, int delta) {
+        int maxStep = jumps.maxStep();
+        for (int d = 0; d < 8; d++) {
+            // Sources lie k cells back along d; stop at the edge instead of testing bounds per cell
+            int reach = maxStep;
+            if (D_ROW[d] != 0) reach = Math.min(reach, D_ROW[d] > 0 ? row : size - 1 - row);
+            if (D_COL[d] != 0) reach = Math.min(reach, D_COL[d] > 0 ? col : size - 1 - col);
+            int back = D_ROW[d] * size + D_COL[d];
+            int cell = row * size + col;
+            for (int k = 1; k <= reach; k++) {
+                cell -= back;
+                if (jumps.step(cell, d) < k) continue;
+                int e = cell * 8 + d;
+                if (delta > 0 ? blockedCount[e]++ == 0 : --blockedCount[e] == 0) {
+                    outDegrees[cell] -= delta;
+                }
+            }
+        }
+    }
+
+    // Whether any of cells from..to (inclusive) of a row is visited; a step of at most 15 spans two words
+    private boolean anyVisited(int row, int from, int to) {
+        long[] bits = visited[row];
+        long low = -1L << from;
+        long high = -1L >>> (63 - (to & 63));
+        int first = from >>> 6;
+        int last = to >>> 6;
+        if (first == last) {
+            return (bits[first] & low & high) != 0;
+        }
+        return (bits[first] & low) != 0 || (bits[last] & high) != 0;
+    }
 
-        if (!isInBounds(targetRow, targetCol) || visited[targetRow][targetCol]) {
+    // Legality without the table, for boards too large to build one
+    private boolean walkRay(int direction) {
+        int dRow = D_ROW[direction];
+        int dCol = D_COL[direction];
+        int row = playerRow + dRow;
+        int col = playerCol + dCol;
+
+        if (!isInBounds(row, col) || isVisited(row, col)) {
             return false;
         }
 
-        int tempRow = playerRow, tempCol = playerCol;
-        for (int i = 1; i <= stepSize; i++) {
-            tempRow += dRow;
-            tempCol += dCol;
-            if (!isInBounds(tempRow, tempCol) || visited[tempRow][tempCol]) {
+        // ✅ Bounds are checked once on the landing cell; the ray is walked a single time
+        int stepSize = grid.get(row, col);
+        if (stepSize < 1 || !isInBounds(playerRow + dRow * stepSize, playerCol + dCol * stepSize)) {
+            return false;
+        }
+        for (int i = 2; i <= stepSize; i++) {
+            row += dRow;
+            col += dCol;
+            if (isVisited(row, col)) {
                 return false;
             }
         }
@@ -120,48 +426,91 @@ public class Board {
     }
 
     public boolean applyMove(Move move) {
-        int dRow = move.getDRow();
-        int dCol = move.getDCol();
-
-        int newRow = playerRow + dRow;
-        int newCol = playerCol + dCol;
+        int direction = move.getDirection();
+        return direction >= 0 && applyMove(direction);
+    }
 
-        if (!isInBounds(newRow, newCol) || visited[newRow][newCol]) {
-            return false;
-        }
+    /** Applies {@code Move.of(direction)} if it is legal. */
+    public boolean applyMove(int direction) {
+        return makeMove(direction) != ILLEGAL_MOVE;
+    }
 
-        int stepSize = grid[newRow][newCol];
-        int targetRow = playerRow + dRow * stepSize;
-        int targetCol = playerCol + dCol * stepSize;
+    public long makeMove(Move move) {
+        int direction = move.getDirection();
+        return direction >= 0 ? makeMove(direction) : ILLEGAL_MOVE;
+    }
 
-        if (!canMoveInDirection(dRow, dCol)) {
-            return false;
+    /**
+     * Applies {@code Move.of(direction)} and returns an undo record for
+     * {@link #undoMove(long)}, or {@link #ILLEGAL_MOVE} if the move is not legal.
+     * The record packs the previous player cell, the step size and the direction;
+     * the cleared cells need not be stored because the grid itself never changes.
+     */
+    public long makeMove(int direction) {
+        boolean legal = maskGeneration == generation
+                ? (cachedMask & (1 << direction)) != 0
+                : canMoveInDirection(direction);
+        if (!legal) {
+            return ILLEGAL_MOVE;
         }
 
+        int dRow = D_ROW[direction];
+        int dCol = D_COL[direction];
+        int stepSize = grid.get(playerRow + dRow, playerCol + dCol);
+        long undo = ((long) (playerRow * size + playerCol) << 7) | (stepSize << 3) | direction;
+        togglePlayerKey();
         for (int i = 1; i <= stepSize; i++) {
             playerRow += dRow;
             playerCol += dCol;
-            visited[playerRow][playerCol] = true;
-            grid[playerRow][playerCol] = 0;
-            visitedCount++;
+            markVisited(playerRow, playerCol);
+            toggleVisitedKey();
+            if (outDegrees != null) updateJumpsThrough(playerRow, playerCol, 1);
         }
+        togglePlayerKey();
+        visitedCount += stepSize;
+        generation++;
 
         stepCount++;
         score++;
-        return true;
+        return undo;
     }
 
-    private boolean isPathClear(int startRow, int startCol, int targetRow, int targetCol, int rowStep, int colStep) {
-        int row = startRow + rowStep;
-        int col = startCol + colStep;
-        while (row != targetRow || col != targetCol) {
-            if (!isInBounds(row, col) || visited[row][col]) {
-                return false;
-            }
-            row += rowStep;
-            col += colStep;
+    /**
+     * Reverts the move that produced {@code undo}. Moves must be undone in the
+     * reverse order they were made.
+     */
+    public void undoMove(long undo) {
+        int direction = (int) undo & 7;
+        int stepSize = (int) (undo >>> 3) & 15;
+        int dRow = D_ROW[direction];
+        int dCol = D_COL[direction];
+        togglePlayerKey();
+        for (int i = 1; i <= stepSize; i++) {
+            clearVisited(playerRow, playerCol);
+            toggleVisitedKey();
+            if (outDegrees != null) updateJumpsThrough(playerRow, playerCol, -1);
+            playerRow -= dRow;
+            playerCol -= dCol;
         }
-        return true;
+        togglePlayerKey();
+        visitedCount -= stepSize;
+        generation++;
+
+        stepCount--;
+        score--;
+    }
+
+    // XORs the key of the player standing on / visiting the current cell in or out
+    private void togglePlayerKey() {
+        int cell = playerRow * size + playerCol;
+        zobristKey ^= Zobrist.playerKey(cell);
+        if (wideHash) zobristKeyHigh ^= Zobrist.playerKeyHigh(cell);
+    }
+
+    private void toggleVisitedKey() {
+        int cell = playerRow * size + playerCol;
+        zobristKey ^= Zobrist.visitedKey(cell);
+        if (wideHash) zobristKeyHigh ^= Zobrist.visitedKeyHigh(cell);
     }
 
     public boolean isValidPosition(int row, int col) {
@@ -169,34 +518,31 @@ public class Board {
     }
 
     public boolean isValidMove(int row, int col) {
-        return isInBounds(row, col) && !visited[row][col];
+        return isInBounds(row, col) && !isVisited(row, col);
     }
 
     private boolean isInBounds(int row, int col) {
         return row >= 0 && row < size && col >= 0 && col < size;
     }
 
+    // Rows are unpacked whole, then only the visited cells are zeroed
     public int[][] copyGrid() {
-        int[][] copy = new int[getSize()][getSize()];
-        for (int i = 0; i < getSize(); i++) {
-            for (int j = 0; j < getSize(); j++) {
-                copy[i][j] = getValueAt(i, j);
+        int[][] copy = new int[size][size];
+        for (int r = 0; r < size; r++) {
+            grid.copyRow(r, copy[r]);
+            long[] bits = visited[r];
+            for (int w = 0; w < bits.length; w++) {
+                for (long word = bits[w]; word != 0; word &= word - 1) {
+                    copy[r][(w << 6) + Long.numberOfTrailingZeros(word)] = 0;
+                }
             }
         }
         return copy;
     }
 
+    // ✅ O(1): visitedCount is kept up to date by makeMove/undoMove
     public double getCoveragePercentage() {
-        int visitedCount = 0;
-        int totalCells = size * size;
-        for (int r = 0; r < size; r++) {
-            for (int c = 0; c < size; c++) {
-                if (visited[r][c]) {
-                    visitedCount++;
-                }
-            }
-        }
-        return (100.0 * visitedCount) / totalCells;
+        return (100.0 * visitedCount) / ((double) size * size);
     }
 
     public void printBoard() {
@@ -204,13 +550,182 @@ public class Board {
             for (int j = 0; j < size; j++) {
                 if (i == playerRow && j == playerCol) {
                     System.out.print(" * ");
-                } else if (visited[i][j]) {
+                } else if (isVisited(i, j)) {
                     System.out.print("   ");
                 } else {
-                    System.out.printf(" %d ", grid[i][j]);
+                    System.out.printf(" %d ", grid.get(i, j));
                 }
             }
             System.out.println();
         }
     }
+
+    /**
+     * Read-only delegate handed to players; the referee keeps the Board itself.
+     * Everything the view computes lazily lives in the view: the legal-move
+     * mask, a private snapshot that forks branch from, out-degrees and the jump
+     * table of huge boards. Reading or forking the view never writes to the
+     * referee's board, even from a thread that keeps running during the
+     * referee's turn.
+     */
+    private static final class View implements BoardView {
+        private final Board board;
+        private JumpGraph jumps;
+        private long mask = -1;         // Legal-move mask in the low bits, the generation it is for in the high bits
+        private Board snapshot;         // Private copy of the position at snapshotGeneration; forks share its rows
+        private int snapshotGeneration;
+        private Board degrees;          // Fork of a snapshot holding out-degrees for its position
+        private int degreesGeneration;
+
+        View(Board board) {
+            this.board = board;
+        }
+
+        @Override
+        public int getSize() {
+            return board.getSize();
+        }
+
+        @Override
+        public int getScore() {
+            return board.getScore();
+        }
+
+        @Override
+        public int getStepCount() {
+            return board.getStepCount();
+        }
+
+        @Override
+        public int getValueAt(int row, int col) {
+            return board.getValueAt(row, col);
+        }
+
+        @Override
+        public int getPlayerRow() {
+            return board.getPlayerRow();
+        }
+
+        @Override
+        public int getPlayerCol() {
+            return board.getPlayerCol();
+        }
+
+        @Override
+        public boolean isVisited(int row, int col) {
+            return board.isVisited(row, col);
+        }
+
+        @Override
+        public boolean isGameOver() {
+            return legalMoveMask() == 0;
+        }
+
+        @Override
+        public int legalMoveMask() {
+            // Generation and mask travel in one field, so another player thread never sees a torn pair
+            int generation = board.generation;
+            long cached = mask;
+            if (cached != -1 && (int) (cached >>> 32) == generation) {
+                return (int) cached;
+            }
+            int legal = 0;
+            for (int d = 0; d < 8; d++) {
+                if (board.canMoveInDirection(d)) {
+                    legal |= 1 << d;
+                }
+            }
+            mask = (long) generation << 32 | legal;
+            return legal;
+        }
+
+        @Override
+        public List<Move> getPossibleMoves() {
+            int legal = legalMoveMask();
+            List<Move> moves = new ArrayList<>(Integer.bitCount(legal));
+            for (; legal != 0; legal &= legal - 1) {
+                moves.add(Move.of(Integer.numberOfTrailingZeros(legal)));
+            }
+            return moves;
+        }
+
+        @Override
+        public boolean canMoveInDirection(int direction) {
+            return board.canMoveInDirection(direction);
+        }
+
+        @Override
+        public int outDegree(int row, int col) {
+            if (degrees == null || degreesGeneration != board.generation) {
+                Board position = snapshot();
+                degrees = position.fork();
+                degrees.jumps = getJumpGraph();
+                degreesGeneration = snapshotGeneration;
+            }
+            return degrees.outDegree(row, col);
+        }
+
+        @Override
+        public int getGeneration() {
+            return board.getGeneration();
+        }
+
+        @Override
+        public long getZobristKey() {
+            return board.getZobristKey();
+        }
+
+        @Override
+        public JumpGraph getJumpGraph() {
+            if (jumps == null) {
+                jumps = board.jumps != null ? board.jumps : JumpGraph.of(board.grid);
+            }
+            return jumps;
+        }
+
+        @Override
+        public boolean isValidPosition(int row, int col) {
+            return board.isValidPosition(row, col);
+        }
+
+        @Override
+        public boolean isValidMove(int row, int col) {
+            return board.isValidMove(row, col);
+        }
+
+        @Override
+        public int[][] copyGrid() {
+            return board.copyGrid();
+        }
+
+        @Override
+        public double getCoveragePercentage() {
+            return board.getCoveragePercentage();
+        }
+
+        @Override
+        public void printBoard() {
+            board.printBoard();
+        }
+
+        @Override
+        public Board fork() {
+            return snapshot().fork();
+        }
+
+        // A copy of the referee's position owned by this view, taken once per position.
+        // Board.fork() would instead mark the referee's rows as shared, making its next move copy them.
+        private Board snapshot() {
+            int generation = board.generation;
+            if (snapshot == null || snapshotGeneration != generation) {
+                long[][] rows = board.visited.clone();
+                for (int r = 0; r < rows.length; r++) {
+                    rows[r] = rows[r].clone();
+                }
+                snapshot = new Board(board, rows);
+                snapshotGeneration = generation;
+            }
+            return snapshot;
+        }
+    }
 }
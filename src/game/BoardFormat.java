@@ -0,0 +1,240 @@
+package game;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Reads and writes board files. Two formats are supported and told apart by
+ * their first bytes:
+ * <ul>
+ *   <li>Text: the size, then "startRow startCol", then one line of
+ *       space-separated values per row (what InstanceGenerator has always written).</li>
+ *   <li>Binary: the magic {@code STKB}, a version byte, size, startRow and
+ *       startCol as big-endian ints, the cells row-major at 4 bits each (high
+ *       nibble first), and a CRC32 of everything before it.</li>
+ * </ul>
+ */
+final class BoardFormat {
+    static final int MAGIC = 0x53544B42; // "STKB"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 4 + 1 + 3 * 4;
+
+    private BoardFormat() {
+    }
+
+    static Tester.BoardData read(String filename) throws IOException {
+        if (isBinary(filename)) {
+            return readBinary(filename);
+        }
+        return readText(filename);
+    }
+
+    static boolean isBinary(String filename) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(filename))) {
+            return in.available() >= 4 && in.readInt() == MAGIC;
+        }
+    }
+
+    static Tester.BoardData readText(String filename) throws IOException {
+        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
+            int size = Integer.parseInt(br.readLine().trim());
+            String[] start = br.readLine().trim().split("\\s+");
+            int startRow = Integer.parseInt(start[0]);
+            int startCol = Integer.parseInt(start[1]);
+            PackedGrid.Builder grid = builder(size, filename);
+            int[] row = new int[size];
+
+            for (int r = 0; r < size; r++) {
+                String line = br.readLine();
+                if (line == null) {
+                    throw new IOException("Board file " + filename + " ends after " + r + " rows.");
+                }
+                parseRow(line, row);
+                try {
+                    grid.setRow(r, row);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(e.getMessage() + " Row: " + line);
+                }
+            }
+
+            return new Tester.BoardData(grid.build(), startRow, startCol);
+        }
+    }
+
+    // Scans a row in place instead of String.split + Integer.parseInt per cell
+    private static void parseRow(String line, int[] row) throws IOException {
+        int c = 0;
+        int i = 0;
+        int n = line.length();
+        while (c < row.length) {
+            while (i < n && Character.isWhitespace(line.charAt(i))) i++;
+            if (i == n) break;
+            int value = 0;
+            int digits = 0;
+            for (; i < n && !Character.isWhitespace(line.charAt(i)); i++, digits++) {
+                char ch = line.charAt(i);
+                if (ch < '0' || ch > '9') {
+                    throw new IOException("Unexpected character '" + ch + "' in row: " + line);
+                }
+                value = value * 10 + (ch - '0');
+            }
+            if (digits > 9) {
+                throw new IOException("Cell value out of range in row: " + line);
+            }
+            row[c++] = value;
+        }
+        if (c < row.length) {
+            throw new IOException("Row has " + c + " cells, expected " + row.length);
+        }
+    }
+
+    static Tester.BoardData readBinary(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return decode(buf, filename);
+        }
+    }
+
+    /** Decodes one binary board starting at the buffer's position, leaving the position after its CRC. */
+    static Tester.BoardData decode(ByteBuffer buf, String source) throws IOException {
+        buf.order(ByteOrder.BIG_ENDIAN);
+        int start = buf.position();
+        if (buf.remaining() < HEADER_BYTES + 4 || buf.getInt() != MAGIC) {
+            throw new IOException(source + " is not a binary board.");
+        }
+        int version = buf.get();
+        if (version != VERSION) {
+            throw new IOException(source + " has unsupported board format version " + version);
+        }
+        int size = buf.getInt();
+        int startRow = buf.getInt();
+        int startCol = buf.getInt();
+        long cells = (long) size * size;
+        int cellBytes = (int) ((cells + 1) / 2);
+        if (size <= 0 || buf.remaining() < cellBytes + 4) {
+            throw new IOException(source + " is truncated.");
+        }
+
+        // ✅ Both layouts are flat row-major nibbles, so 8 file bytes become one grid word
+        PackedGrid.Builder grid = builder(size, source);
+        int fullWords = cellBytes >>> 3;
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        for (int w = 0; w < fullWords; w++) {
+            grid.setWord(w, swapNibbles(buf.getLong()));
+        }
+        buf.order(ByteOrder.BIG_ENDIAN);
+        long tail = 0;
+        for (int i = 0; i < (cellBytes & 7); i++) {
+            tail |= (buf.get() & 0xFFL) << (i * 8);
+        }
+        if ((cellBytes & 7) != 0) {
+            grid.setWord(fullWords, swapNibbles(tail));
+        }
+
+        int end = buf.position();
+        int storedCrc = buf.getInt();
+        CRC32 crc = new CRC32();
+        crc.update(buf.duplicate().position(start).limit(end));
+        if ((int) crc.getValue() != storedCrc) {
+            throw new IOException(source + " failed its checksum.");
+        }
+        return new Tester.BoardData(grid.build(), startRow, startCol);
+    }
+
+    // Files put a byte's first cell in its high nibble, PackedGrid in its low one
+    private static long swapNibbles(long bytes) {
+        return ((bytes >>> 4) & 0x0F0F0F0F0F0F0F0FL) | ((bytes & 0x0F0F0F0F0F0F0F0FL) << 4);
+    }
+
+    private static PackedGrid.Builder builder(int size, String source) throws IOException {
+        if (size <= 0 || size > PackedGrid.MAX_SIZE) {
+            throw new IOException(source + " has an unsupported board size " + size);
+        }
+        return new PackedGrid.Builder(size);
+    }
+
+    static void writeBinary(String filename, Tester.BoardData data) throws IOException {
+        try (BinaryWriter writer = new BinaryWriter(new FileOutputStream(filename), data.size, data.startRow, data.startCol)) {
+            int[] row = new int[data.size];
+            for (int r = 0; r < data.size; r++) {
+                data.grid.copyRow(r, row);
+                writer.writeRow(row);
+            }
+        }
+    }
+
+    static void writeText(String filename, Tester.BoardData data) throws IOException {
+        try (Writer writer = new BufferedWriter(new FileWriter(filename), 1 << 16)) {
+            writer.write(data.size + "\n");
+            writer.write(data.startRow + " " + data.startCol + "\n");
+            StringBuilder line = new StringBuilder();
+            int[] row = new int[data.size];
+            for (int r = 0; r < data.size; r++) {
+                data.grid.copyRow(r, row);
+                line.setLength(0);
+                for (int c = 0; c < row.length; c++) {
+                    if (c > 0) line.append(' ');
+                    line.append(row[c]);
+                }
+                writer.write(line.append('\n').toString());
+            }
+        }
+    }
+
+    /** Streams a binary board row by row, so the writer never needs the whole grid in memory. */
+    static final class BinaryWriter implements Closeable {
+        private final CheckedOutputStream checked;
+        private final DataOutputStream out;
+        private final long cells;
+        private long written;
+        private int pending = -1; // High nibble waiting for its low half
+
+        BinaryWriter(OutputStream target, int size, int startRow, int startCol) throws IOException {
+            this.checked = new CheckedOutputStream(new BufferedOutputStream(target, 1 << 16), new CRC32());
+            this.out = new DataOutputStream(checked);
+            this.cells = (long) size * size;
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(size);
+            out.writeInt(startRow);
+            out.writeInt(startCol);
+        }
+
+        void writeRow(int[] row) throws IOException {
+            for (int value : row) {
+                if (value < 0 || value > 15) {
+                    throw new IOException("Cell value " + value + " does not fit in 4 bits.");
+                }
+                if (pending < 0) {
+                    pending = value;
+                } else {
+                    out.writeByte((pending << 4) | value);
+                    pending = -1;
+                }
+            }
+            written += row.length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (written != cells) {
+                    throw new IOException("Wrote " + written + " cells, expected " + cells);
+                }
+                if (pending >= 0) {
+                    out.writeByte(pending << 4);
+                }
+                out.writeInt((int) checked.getChecksum().getValue());
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
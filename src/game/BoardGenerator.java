@@ -1,10 +1,14 @@
 package game;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Random;
+import java.util.SplittableRandom;
 
+/**
+ * Writes a handful of small boards to {@code boards/board<i>.dat}. Boards come
+ * from {@link InstanceGenerator}, so {@code [masterSeed]} reproduces a set;
+ * use {@code InstanceGenerator corpus} for anything bigger.
+ */
 public class BoardGenerator {
     private static final int NUM_BOARDS = 5;
     private static final int SIZE = 5;
@@ -13,56 +17,17 @@ public class BoardGenerator {
         // Make sure boards/ folder exists
         new File("boards").mkdirs();
 
+        long masterSeed = args.length > 0 ? Long.parseLong(args[0]) : new SplittableRandom().nextLong();
+        long[] seeds = InstanceGenerator.deriveSeeds(masterSeed, NUM_BOARDS);
         for (int i = 1; i <= NUM_BOARDS; i++) {
-            BoardData data = generateRandomBoardData(SIZE);
             String filename = "boards/board" + i + ".dat";
             try {
-                saveBoardData(data, filename);
-                System.out.println("Generated " + filename);
+                InstanceGenerator.generateBoard(filename, SIZE, seeds[i - 1], false);
+                System.out.println("Generated " + filename + " (seed " + seeds[i - 1] + ")");
             } catch (IOException e) {
                 e.printStackTrace();
             }
         }
-    }
-
-    private static BoardData generateRandomBoardData(int size) {
-        Random rand = new Random();
-        int[][] grid = new int[size][size];
-        for (int r = 0; r < size; r++) {
-            for (int c = 0; c < size; c++) {
-                grid[r][c] = 1 + rand.nextInt(9);
-            }
-        }
-        int startRow = rand.nextInt(size);
-        int startCol = rand.nextInt(size);
-
-        return new BoardData(size, grid, startRow, startCol);
-    }
-
-    private static void saveBoardData(BoardData data, String filename) throws IOException {
-        try (FileWriter fw = new FileWriter(filename)) {
-            // Format:
-            // First line: size
-            // Second line: startRow startCol
-            // Next 'size' lines: row of grid
-            fw.write(data.size + "\n");
-            fw.write(data.startRow + " " + data.startCol + "\n");
-            for (int r = 0; r < data.size; r++) {
-                for (int c = 0; c < data.size; c++) {
-                    fw.write(data.grid[r][c] + (c < data.size - 1 ? " " : ""));
-                }
-                fw.write("\n");
-            }
-        }
-    }
-
-    static class BoardData {
-        int size;
-        int[][] grid;
-        int startRow, startCol;
-
-        BoardData(int sz, int[][] gr, int sr, int sc) {
-            size = sz; grid = gr; startRow = sr; startCol = sc;
-        }
+        System.out.println("Master seed: " + masterSeed);
     }
 }
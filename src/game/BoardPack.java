@@ -0,0 +1,381 @@
+package game;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * A single file holding any number of boards, with random access by position or id.
+ * <p>
+ * Layout: a header ({@code STKP}, version), the boards back to back in the
+ * binary {@link BoardFormat}, then an index of (size, id, seed, offset, length)
+ * entries, and finally a footer with the index offset and {@code STKI}. Opening
+ * a pack reads only the footer and the index; each board is fetched with one
+ * positional read. Boards are keyed by (size, id, seed).
+ * <p>
+ * An append writes the new boards and a fresh index after the old footer,
+ * syncs, and writes the new footer last. If it is interrupted, the old footer
+ * and index are still in the file, and opening falls back to them. Each
+ * append leaves its old index behind as dead bytes; {@code compact} rewrites
+ * the pack without them.
+ * <pre>
+ * java game.BoardPack append  &lt;pack&gt; &lt;boardFile&gt; [id] [seed]
+ * java game.BoardPack list    &lt;pack&gt;
+ * java game.BoardPack extract &lt;pack&gt; &lt;id&gt; &lt;outFile&gt; [text|binary]
+ * java game.BoardPack compact &lt;pack&gt;
+ * </pre>
+ */
+public class BoardPack implements Closeable {
+    static final int MAGIC = 0x53544B50;       // "STKP"
+    static final int INDEX_MAGIC = 0x53544B49; // "STKI"
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 5;
+    private static final int FOOTER_BYTES = 12;
+    private static final int ENTRY_BYTES = 4 + 4 + 8 + 8 + 4;
+    private static final int SCAN_CHUNK = 1 << 16;
+
+    private final FileChannel channel;
+    private final String name;
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<List<Long>, Integer> positionByKey = new HashMap<>();
+    private long end; // Just past the footer; anything beyond is left over from an interrupted append
+
+    private BoardPack(FileChannel channel, String name) {
+        this.channel = channel;
+        this.name = name;
+    }
+
+    public static BoardPack open(String filename) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        BoardPack pack = new BoardPack(channel, filename);
+        try {
+            pack.readIndex();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return pack;
+    }
+
+    /** Opens a pack for appending, creating it if it does not exist yet. */
+    public static BoardPack openForAppend(String filename) throws IOException {
+        Path path = Paths.get(filename);
+        boolean exists = path.toFile().length() > 0;
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE);
+        BoardPack pack = new BoardPack(channel, filename);
+        try {
+            if (exists) {
+                pack.readIndex();
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).put((byte) VERSION);
+                header.flip();
+                pack.writeFully(header, 0);
+                pack.end = pack.writeIndex(pack.entries, HEADER_BYTES);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return pack;
+    }
+
+    /** Whether the file starts with the pack magic. */
+    public static boolean isPack(String filename) throws IOException {
+        File file = new File(filename);
+        if (!file.isFile() || file.length() < HEADER_BYTES) return false;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == MAGIC;
+        }
+    }
+
+    private void readIndex() throws IOException {
+        long fileSize = channel.size();
+        ByteBuffer header = readFully(0, HEADER_BYTES);
+        if (header.getInt() != MAGIC) {
+            throw new IOException(name + " is not a board pack.");
+        }
+        if (header.get() != VERSION) {
+            throw new IOException(name + " has an unsupported pack version.");
+        }
+
+        long footerAt = fileSize - FOOTER_BYTES;
+        long indexOffset = indexOffsetAt(footerAt);
+        if (indexOffset < 0) {
+            footerAt = lastFooterBefore(footerAt);
+            if (footerAt < 0) {
+                throw new IOException(name + " has a damaged index.");
+            }
+            indexOffset = indexOffsetAt(footerAt);
+            System.err.println("📍 " + name + ": ignoring " + (fileSize - footerAt - FOOTER_BYTES)
+                    + " bytes left by an interrupted append.");
+        }
+
+        ByteBuffer index = readFully(indexOffset, (int) (footerAt - indexOffset));
+        int count = index.getInt();
+        for (int i = 0; i < count; i++) {
+            addEntry(new Entry(index.getInt(), index.getInt(), index.getLong(), index.getLong(), index.getInt()));
+        }
+        end = footerAt + FOOTER_BYTES;
+    }
+
+    // Offset of the index a footer at footerAt points to, or -1 unless the footer and the index's count agree
+    private long indexOffsetAt(long footerAt) throws IOException {
+        if (footerAt < HEADER_BYTES + 4) return -1;
+        ByteBuffer footer = readFully(footerAt, FOOTER_BYTES);
+        long indexOffset = footer.getLong();
+        if (footer.getInt() != INDEX_MAGIC || indexOffset < HEADER_BYTES || indexOffset > footerAt - 4) return -1;
+        long count = readFully(indexOffset, 4).getInt();
+        return indexOffset + 4 + count * ENTRY_BYTES == footerAt ? indexOffset : -1;
+    }
+
+    // The last intact footer before footerAt, or -1; scans backwards for the index magic
+    private long lastFooterBefore(long footerAt) throws IOException {
+        long low = HEADER_BYTES + 4 + 8; // Smallest position of a footer's magic
+        long high = footerAt + 8;        // Magic positions below this are candidates
+        while (high > low) {
+            long from = Math.max(low, high - SCAN_CHUNK);
+            ByteBuffer chunk = readFully(from, (int) (high - from) + 3);
+            for (long at = high - 1; at >= from; at--) {
+                if (chunk.getInt((int) (at - from)) == INDEX_MAGIC && indexOffsetAt(at - 8) >= 0) {
+                    return at - 8;
+                }
+            }
+            high = from;
+        }
+        return -1;
+    }
+
+    // Writes an index of entries at indexOffset, syncs, then writes the footer; returns the new end
+    private long writeIndex(List<Entry> entries, long indexOffset) throws IOException {
+        ByteBuffer index = ByteBuffer.allocate(4 + entries.size() * ENTRY_BYTES);
+        index.putInt(entries.size());
+        for (Entry e : entries) {
+            index.putInt(e.size).putInt(e.id).putLong(e.seed).putLong(e.offset).putInt(e.length);
+        }
+        index.flip();
+        writeFully(index, indexOffset);
+        channel.force(false);
+
+        long footerAt = indexOffset + 4 + (long) entries.size() * ENTRY_BYTES;
+        ByteBuffer footer = ByteBuffer.allocate(FOOTER_BYTES).putLong(indexOffset).putInt(INDEX_MAGIC);
+        footer.flip();
+        writeFully(footer, footerAt);
+        channel.force(false);
+        return footerAt + FOOTER_BYTES;
+    }
+
+    private void addEntry(Entry entry) {
+        positionByKey.put(key(entry.size, entry.id, entry.seed), entries.size());
+        entries.add(entry);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Entry getEntry(int position) {
+        return entries.get(position);
+    }
+
+    /** Position of the board with this size, id and seed, or -1. */
+    public int indexOf(int size, int id, long seed) {
+        return positionByKey.getOrDefault(key(size, id, seed), -1);
+    }
+
+    private static List<Long> key(int size, int id, long seed) {
+        return List.of((long) size, (long) id, seed);
+    }
+
+    public int nextId() {
+        int max = 0;
+        for (Entry e : entries) max = Math.max(max, e.id);
+        return max + 1;
+    }
+
+    Tester.BoardData read(int position) throws IOException {
+        Entry e = entries.get(position);
+        return BoardFormat.decode(readFully(e.offset, e.length), name + "#" + e.id);
+    }
+
+    /** The board with this id; fails if there is none, or several (of different sizes or seeds). */
+    Tester.BoardData readById(int id) throws IOException {
+        int position = -1;
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).id != id) continue;
+            if (position >= 0) {
+                throw new IOException(name + " has more than one board with id " + id);
+            }
+            position = i;
+        }
+        if (position < 0) {
+            throw new IOException(name + " has no board with id " + id);
+        }
+        return read(position);
+    }
+
+    /** Appends one board and rewrites the index. Use {@link #appendAll} for batches. */
+    void append(Tester.BoardData data, int id, long seed) throws IOException {
+        appendAll(Collections.singletonList(data), new int[]{id}, new long[]{seed});
+    }
+
+    void appendAll(List<Tester.BoardData> boards, int[] ids, long[] seeds) throws IOException {
+        List<Entry> added = new ArrayList<>();
+        List<byte[]> encoded = new ArrayList<>();
+        Set<List<Long>> keys = new HashSet<>(positionByKey.keySet());
+        for (int i = 0; i < boards.size(); i++) {
+            Tester.BoardData data = boards.get(i);
+            if (!keys.add(key(data.size, ids[i], seeds[i]))) {
+                throw new IOException(name + " already has board " + ids[i] + " of size " + data.size
+                        + " with seed " + seeds[i]);
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (BoardFormat.BinaryWriter writer = new BoardFormat.BinaryWriter(bytes, data.size,
+                    data.startRow, data.startCol)) {
+                int[] row = new int[data.size];
+                for (int r = 0; r < data.size; r++) {
+                    data.grid.copyRow(r, row);
+                    writer.writeRow(row);
+                }
+            }
+            added.add(new Entry(data.size, ids[i], seeds[i], 0, bytes.size()));
+            encoded.add(bytes.toByteArray());
+        }
+        appendEncoded(added, encoded);
+    }
+
+    // Writes boards and a fresh index of every entry after the current footer; the old footer stays valid until the new one is written
+    private void appendEncoded(List<Entry> added, List<byte[]> encoded) throws IOException {
+        channel.truncate(end);
+        List<Entry> all = new ArrayList<>(entries);
+        long position = end;
+        for (int i = 0; i < added.size(); i++) {
+            Entry e = added.get(i);
+            writeFully(ByteBuffer.wrap(encoded.get(i)), position);
+            all.add(new Entry(e.size, e.id, e.seed, position, e.length));
+            position += e.length;
+        }
+        end = writeIndex(all, position);
+        for (Entry e : all.subList(entries.size(), all.size())) {
+            addEntry(e);
+        }
+    }
+
+    /** Rewrites the pack without the indexes earlier appends left behind, replacing the file at the end. */
+    public static void compact(String filename) throws IOException {
+        Path path = Paths.get(filename);
+        Path temp = Paths.get(filename + ".tmp");
+        Files.deleteIfExists(temp);
+        try (BoardPack source = open(filename); BoardPack target = openForAppend(temp.toString())) {
+            List<Entry> copied = new ArrayList<>();
+            long position = target.end;
+            for (Entry e : source.entries) {
+                target.writeFully(source.readFully(e.offset, e.length), position);
+                copied.add(new Entry(e.size, e.id, e.seed, position, e.length));
+                position += e.length;
+            }
+            target.writeIndex(copied, position);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        if (position < 0 || length < 0) {
+            throw new IOException(name + " is truncated.");
+        }
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new IOException(name + " is truncated.");
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+
+    private void writeFully(ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf, position + buf.position());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static final class Entry {
+        public final int size;
+        public final int id;
+        public final long seed;
+        final long offset;
+        final int length;
+
+        Entry(int size, int id, long seed, long offset, int length) {
+            this.size = size;
+            this.id = id;
+            this.seed = seed;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: java game.BoardPack append <pack> <boardFile> [id] [seed]");
+            System.err.println("       java game.BoardPack list <pack>");
+            System.err.println("       java game.BoardPack extract <pack> <id> <outFile> [text|binary]");
+            System.err.println("       java game.BoardPack compact <pack>");
+            return;
+        }
+
+        try {
+            switch (args[0]) {
+                case "append":
+                    try (BoardPack pack = openForAppend(args[1])) {
+                        Tester.BoardData data = Tester.loadBoardData(args[2]);
+                        int id = args.length > 3 ? Integer.parseInt(args[3]) : pack.nextId();
+                        long seed = args.length > 4 ? Long.parseLong(args[4]) : 0;
+                        pack.append(data, id, seed);
+                        System.out.println("Appended " + args[2] + " as board " + id);
+                    }
+                    break;
+                case "list":
+                    try (BoardPack pack = open(args[1])) {
+                        for (int i = 0; i < pack.size(); i++) {
+                            Entry e = pack.getEntry(i);
+                            System.out.println(i + " id=" + e.id + " size=" + e.size + " seed=" + e.seed
+                                    + " offset=" + e.offset + " bytes=" + e.length);
+                        }
+                    }
+                    break;
+                case "extract":
+                    try (BoardPack pack = open(args[1])) {
+                        Tester.BoardData data = pack.readById(Integer.parseInt(args[2]));
+                        if (args.length > 4 && args[4].equalsIgnoreCase("binary")) {
+                            BoardFormat.writeBinary(args[3], data);
+                        } else {
+                            BoardFormat.writeText(args[3], data);
+                        }
+                    }
+                    break;
+                case "compact":
+                    long before = new File(args[1]).length();
+                    compact(args[1]);
+                    System.out.println("Compacted " + args[1] + " from " + before + " to "
+                            + new File(args[1]).length() + " bytes");
+                    break;
+                default:
+                    System.err.println("Unknown command: " + args[0]);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package game;
+
+import java.util.List;
+
+/**
+ * Read-only access to a game position. Players receive a live view of the
+ * referee's board: it follows the game as moves are applied, but cannot change
+ * it. To search, {@link #fork()} the view and play moves on the copy.
+ */
+public interface BoardView {
+    int getSize();
+
+    int getScore();
+
+    int getStepCount();
+
+    /** Value of the cell, or 0 once it has been visited. */
+    int getValueAt(int row, int col);
+
+    int getPlayerRow();
+
+    int getPlayerCol();
+
+    boolean isVisited(int row, int col);
+
+    boolean isGameOver();
+
+    /** Bit {@code d} is set when {@code Move.of(d)} is legal; see {@link Board#legalMoveMask()}. */
+    int legalMoveMask();
+
+    /** Legal moves as a new list the caller may modify. */
+    List<Move> getPossibleMoves();
+
+    boolean canMoveInDirection(int direction);
+
+    /**
+     * Open jumps from a cell; see {@link Board#outDegree(int, int)}. The live
+     * view rebuilds its counts (O(N²)) once per position; a fork keeps them up to date.
+     */
+    int outDegree(int row, int col);
+
+    /** Changes whenever the position changes. */
+    int getGeneration();
+
+    long getZobristKey();
+
+    JumpGraph getJumpGraph();
+
+    boolean isValidPosition(int row, int col);
+
+    boolean isValidMove(int row, int col);
+
+    int[][] copyGrid();
+
+    double getCoveragePercentage();
+
+    void printBoard();
+
+    /**
+     * A mutable copy of the current position in O(1): the copy shares row
+     * storage with this board, and either side copies a row the first time it
+     * writes to it. A live view forks from a private snapshot it takes once
+     * per position (O(N²/64) words), so forking never touches the game's board.
+     */
+    Board fork();
+}
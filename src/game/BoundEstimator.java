@@ -0,0 +1,203 @@
+package game;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Anytime bounds on the minimum number of moves to get stuck, for boards where
+ * an exact answer may not arrive in time.
+ * <p>
+ * The estimator tightens both bounds in phases until the gap closes or time
+ * runs out:
+ * <ol>
+ *   <li>if at most {@code TABLEBASE_CELLS} cells are still in play, an
+ *       in-memory {@link Tablebase} of them, which is exact and ends the
+ *       estimate in milliseconds,</li>
+ *   <li>a relaxed lower bound from the jump graph (instant, see
+ *       {@link #relaxedLowerBound(Board)}),</li>
+ *   <li>greedy playouts for a first upper bound,</li>
+ *   <li>beam searches of growing width for shorter lines,</li>
+ *   <li>the exact {@link ParallelSolver} with the remaining time, whose
+ *       completed depths raise the lower bound.</li>
+ * </ol>
+ * Every improvement is passed to the listener, so a caller can stop whenever
+ * the gap is small enough. The phases take {@code GREEDY_SHARE} and
+ * {@code BEAM_SHARE} of the budget; the exact search gets the rest.
+ */
+public class BoundEstimator {
+    private static final double GREEDY_SHARE = 0.05;
+    private static final double BEAM_SHARE = 0.25;
+    private static final int MIN_BEAM_WIDTH = 8;
+    private static final int MAX_BEAM_WIDTH = 4096;
+    private static final int TABLEBASE_CELLS = 18; // 2.4M states, about 60 ms on one core
+
+    private final Board root;
+    private final ForkJoinPool pool;
+    private Consumer<Bounds> listener = bounds -> { };
+    private int lower;
+    private List<Move> bestLine;
+
+    public BoundEstimator(Board board) {
+        this(board, ForkJoinPool.commonPool());
+    }
+
+    /** Runs the exact phase on {@code pool}. */
+    public BoundEstimator(Board board, ForkJoinPool pool) {
+        this.root = new Board(board);
+        this.pool = pool;
+    }
+
+    /** Called with the current bounds every time either one improves. */
+    public void setListener(Consumer<Bounds> listener) {
+        this.listener = listener;
+    }
+
+    public Bounds estimate(long timeLimitMillis) {
+        long start = System.nanoTime();
+        long budget = timeLimitMillis * 1_000_000L;
+        long deadline = start + budget;
+
+        bestLine = null;
+        int[] region = Tablebase.liveRegion(root, TABLEBASE_CELLS);
+        List<Move> tabled = region == null ? null : Tablebase.build(root, region, pool).line(root);
+        if (tabled != null) {
+            lower = tabled.size();
+            improveUpper(tabled);
+            return current();
+        }
+        lower = relaxedLowerBound(root);
+        improveUpper(Solver.greedyUpperBound(root, new Random(0x5EED), start + (long) (budget * GREEDY_SHARE)));
+
+        long beamDeadline = start + (long) (budget * (GREEDY_SHARE + BEAM_SHARE));
+        for (int width = MIN_BEAM_WIDTH; width <= MAX_BEAM_WIDTH && lower < bestLine.size()
+                && System.nanoTime() < beamDeadline; width *= 2) {
+            List<Move> line = beamSearch(root, width, bestLine.size(), beamDeadline);
+            if (line != null) {
+                improveUpper(line);
+            }
+        }
+
+        long remaining = (deadline - System.nanoTime()) / 1_000_000L;
+        if (lower < bestLine.size() && remaining > 0) {
+            Solver.Result exact = new ParallelSolver(root, pool).solve(remaining);
+            improveUpper(exact.getBestLine());
+            if (exact.getLowerBound() > lower) {
+                lower = Math.min(exact.getLowerBound(), bestLine.size());
+                listener.accept(current());
+            }
+        }
+        return current();
+    }
+
+    private void improveUpper(List<Move> line) {
+        if (bestLine == null || line.size() < bestLine.size()) {
+            bestLine = line;
+            listener.accept(current());
+        }
+    }
+
+    private Bounds current() {
+        return new Bounds(Math.min(lower, bestLine.size()), bestLine.size(), bestLine);
+    }
+
+    /**
+     * The bound of {@link ReachabilityAnalyzer#lowerBound()}: the game can only
+     * end on a cell reachable through open jumps, not sooner than its distance,
+     * and only once every open direction of that cell has been blocked.
+     */
+    public static int relaxedLowerBound(Board board) {
+        return new ReachabilityAnalyzer(board).lowerBound();
+    }
+
+    /**
+     * Breadth-limited search: each level keeps the {@code width} distinct
+     * positions with the fewest exits. Returns the first line that gets stuck
+     * in fewer than {@code cutoff} moves, or null.
+     */
+    static List<Move> beamSearch(Board root, int width, int cutoff, long deadline) {
+        List<BeamNode> level = Collections.singletonList(new BeamNode(new Board(root), null, -1, 0));
+        for (int depth = 1; depth < cutoff && !level.isEmpty(); depth++) {
+            List<BeamNode> next = new ArrayList<>();
+            Set<Long> seen = new HashSet<>();
+            for (BeamNode node : level) {
+                if (System.nanoTime() > deadline) return null;
+                for (int m = node.board.legalMoveMask(); m != 0; m &= m - 1) {
+                    int direction = Integer.numberOfTrailingZeros(m);
+                    Board child = new Board(node.board);
+                    child.makeMove(direction);
+                    if (!seen.add(child.getZobristKey())) continue;
+                    int exits = Integer.bitCount(child.legalMoveMask());
+                    BeamNode childNode = new BeamNode(child, node, direction, exits);
+                    if (exits == 0) return childNode.line();
+                    next.add(childNode);
+                }
+            }
+            next.sort(Comparator.comparingInt(n -> n.exits));
+            level = next.size() > width ? next.subList(0, width) : next;
+        }
+        return null;
+    }
+
+    private static final class BeamNode {
+        final Board board;
+        final BeamNode parent;
+        final int direction;
+        final int exits;
+
+        BeamNode(Board board, BeamNode parent, int direction, int exits) {
+            this.board = board;
+            this.parent = parent;
+            this.direction = direction;
+            this.exits = exits;
+        }
+
+        List<Move> line() {
+            LinkedList<Move> line = new LinkedList<>();
+            for (BeamNode n = this; n.parent != null; n = n.parent) {
+                line.addFirst(Move.of(n.direction));
+            }
+            return new ArrayList<>(line);
+        }
+    }
+
+    /** Proven bounds on the minimum steps: some line needs {@code upper}; none needs fewer than {@code lower}. */
+    public static final class Bounds {
+        private final int lower;
+        private final int upper;
+        private final List<Move> bestLine;
+
+        Bounds(int lower, int upper, List<Move> bestLine) {
+            this.lower = lower;
+            this.upper = upper;
+            this.bestLine = Collections.unmodifiableList(bestLine);
+        }
+
+        public int getLower() {
+            return lower;
+        }
+
+        public int getUpper() {
+            return upper;
+        }
+
+        public int getGap() {
+            return upper - lower;
+        }
+
+        public boolean isExact() {
+            return lower == upper;
+        }
+
+        /** A line that gets stuck in {@link #getUpper()} moves. */
+        public List<Move> getBestLine() {
+            return bestLine;
+        }
+
+        /** {@code lower upper gap}, the format Tester prints. */
+        @Override
+        public String toString() {
+            return lower + " " + upper + " " + getGap();
+        }
+    }
+}
@@ -1,56 +1,129 @@
 package game;
 
-import java.util.*;
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
-public class GameLogger {
-    private List<int[][]> boardHistory = new ArrayList<>();
-    private List<int[]> moveHistory = new ArrayList<>(); // Stores (dRow, dCol) instead of absolute positions
-    private Board board;
+/**
+ * Prints a game move by move without slowing the game down.
+ * <p>
+ * {@link #logMove} only records the direction in a fixed-size history ring and
+ * offers it to a bounded queue, so it returns in microseconds. A background
+ * viewer thread replays the moves on its own copy of the board, renders each
+ * step and waits {@code paceMillis} between frames. If the viewer falls so far
+ * behind that the queue fills up, it reports that it lost sync and stops
+ * rendering; the game itself is never blocked.
+ */
+public class GameLogger implements Closeable {
+    private static final long DEFAULT_PACE_MILLIS = 500;
+    private static final int DEFAULT_HISTORY = 1024;
+    private static final int QUEUE_CAPACITY = 1 << 16;
+    private static final Integer END = -1;
+
+    private final int[] moveHistory; // Ring of direction indices (see Move.getDirection()), not board copies
+    private int moveCount;
+    private final BlockingQueue<Integer> pending = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private volatile boolean lostSync;
+    private final Thread viewer;
 
     public GameLogger(Board board) {
-        this.board = board;
-        saveState();
+        this(board, DEFAULT_PACE_MILLIS, DEFAULT_HISTORY, System.out);
+    }
+
+    /**
+     * @param board         the live board, before any move is logged; the viewer copies it once
+     * @param paceMillis    minimum delay between rendered frames (0 renders as fast as possible)
+     * @param historySize   how many recent moves {@link #getRecentMoves()} keeps
+     * @param out           where frames are printed
+     */
+    public GameLogger(Board board, long paceMillis, int historySize, PrintStream out) {
+        this.moveHistory = new int[historySize];
+        Board replica = new Board(board);
+        this.viewer = new Thread(() -> view(replica, paceMillis, out), "GameLogger-viewer");
+        viewer.setDaemon(true);
+        viewer.start();
     }
 
     public void logMove(int dRow, int dCol) {
-        moveHistory.add(new int[]{dRow, dCol});
-        saveState();
-        printBoardState(dRow, dCol);
+        int direction = Move.directionOf(dRow, dCol);
+        if (direction < 0) return;
+
+        moveHistory[moveCount % moveHistory.length] = direction;
+        moveCount++;
+        if (!lostSync && !pending.offer(direction)) {
+            lostSync = true;
+        }
     }
 
-    private void saveState() {
-        int[][] snapshot = new int[board.getSize()][board.getSize()];
-        for (int r = 0; r < board.getSize(); r++) {
-            for (int c = 0; c < board.getSize(); c++) {
-                snapshot[r][c] = board.getValueAt(r, c);
+    /** Up to {@code historySize} most recent moves, oldest first. */
+    public List<Move> getRecentMoves() {
+        int kept = Math.min(moveCount, moveHistory.length);
+        List<Move> moves = new ArrayList<>(kept);
+        for (int i = moveCount - kept; i < moveCount; i++) {
+            moves.add(Move.of(moveHistory[i % moveHistory.length]));
+        }
+        return moves;
+    }
+
+    /** Lets the viewer finish rendering what has been logged, then stops it. */
+    @Override
+    public void close() {
+        try {
+            if (!pending.offer(END)) {
+                viewer.interrupt(); // Queue full: the viewer has lost sync anyway
             }
+            viewer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        boardHistory.add(snapshot);
     }
 
-    private void printBoardState(int dRow, int dCol) {
-        System.out.println("\nStep " + moveHistory.size() + " - Player moved direction: (" + dRow + ", " + dCol + ")");
+    private void view(Board replica, long paceMillis, PrintStream out) {
+        StringBuilder frame = new StringBuilder();
+        long nextFrame = 0;
+        try {
+            while (true) {
+                Integer direction = pending.take();
+                if (direction.equals(END)) return;
+                if (lostSync) {
+                    out.println("⚠️ GameLogger fell behind and lost sync at step " + replica.getStepCount());
+                    return;
+                }
+
+                replica.applyMove(direction);
+                long wait = nextFrame - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                render(replica, Move.of(direction), frame);
+                out.print(frame);
+                nextFrame = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(paceMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-        int[][] latestBoard = boardHistory.get(boardHistory.size() - 1);
-        for (int r = 0; r < latestBoard.length; r++) {
-            for (int c = 0; c < latestBoard[r].length; c++) {
+    private static void render(Board board, Move move, StringBuilder frame) {
+        frame.setLength(0);
+        frame.append("\nStep ").append(board.getStepCount()).append(" - Player moved direction: (")
+                .append(move.getDRow()).append(", ").append(move.getDCol()).append(")\n");
+        for (int r = 0; r < board.getSize(); r++) {
+            for (int c = 0; c < board.getSize(); c++) {
                 if (r == board.getPlayerRow() && c == board.getPlayerCol()) {
-                    System.out.print(" P ");
+                    frame.append(" P ");
                 } else if (board.isVisited(r, c)) {
-                    System.out.print(" . ");
+                    frame.append(" . ");
                 } else {
-                    System.out.print(" " + latestBoard[r][c] + " ");
+                    frame.append(' ').append(board.getValueAt(r, c)).append(' ');
                 }
             }
-            System.out.println();
-        }
-
-        System.out.println("Total Moves Made: " + board.getStepCount());
-
-        try {
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            frame.append('\n');
         }
+        frame.append("Total Moves Made: ").append(board.getStepCount()).append('\n');
     }
 }
@@ -1,39 +1,215 @@
 package game;
 
 import java.io.*;
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Generates boards. Every board is fully determined by its size and a 64-bit
+ * seed, so any board can be re-derived exactly.
+ * <pre>
+ * java game.InstanceGenerator &lt;outputFile&gt; &lt;size&gt; [text|binary] [seed]
+ * java game.InstanceGenerator corpus &lt;outputDir|pack&gt; &lt;masterSeed&gt; &lt;size,size,...&gt; &lt;countPerSize&gt; [text|binary]
+ * </pre>
+ * Corpus mode derives one seed per board from the master seed (sizes in the
+ * order given, then boards 1..count), generates the boards in parallel and
+ * writes a manifest of {@code id size seed startRow startCol file}. A directory
+ * gets {@code board_<size>x<size>_<id>.dat} files and {@code manifest.txt};
+ * an output ending in {@code .pack} becomes a {@link BoardPack} with the seeds
+ * in its index and the manifest next to it.
+ */
 public class InstanceGenerator {
+    private static final int PACK_BATCH = 256; // Boards generated in parallel before each pack append
+
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("corpus")) {
+            corpusMain(args);
+            return;
+        }
         if (args.length < 2) {
-            System.err.println("Usage: java game.InstanceGenerator <outputFile> <size>");
+            System.err.println("Usage: java game.InstanceGenerator <outputFile> <size> [text|binary] [seed]");
+            System.err.println("       java game.InstanceGenerator corpus <outputDir|pack> <masterSeed> <size,size,...> <countPerSize> [text|binary]");
             return;
         }
 
         String filename = args[0];
         int size = Integer.parseInt(args[1]);
+        boolean binary = args.length > 2 && args[2].equalsIgnoreCase("binary");
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : new SplittableRandom().nextLong();
 
-        generateBoard(filename, size);
+        try {
+            generateBoard(filename, size, seed, binary);
+        } catch (IOException e) {
+            System.err.println("Error generating board: " + e.getMessage());
+        }
     }
 
-    private static void generateBoard(String filename, int size) {
-        Random rand = new Random();
+    /** The board for {@code (size, seed)}, in memory. Draws exactly what {@link #generateBoard} writes. */
+    static Tester.BoardData generate(int size, long seed) {
+        SplittableRandom rand = new SplittableRandom(seed);
+        int startRow = rand.nextInt(size);
+        int startCol = rand.nextInt(size);
+        PackedGrid.Builder grid = new PackedGrid.Builder(size);
+        int[] row = new int[size];
+        for (int r = 0; r < size; r++) {
+            fillRow(rand, row);
+            grid.setRow(r, row);
+        }
+        return new Tester.BoardData(grid.build(), startRow, startCol);
+    }
+
+    /** Writes the board for {@code (size, seed)} row by row and returns its start cell as {row, col}. */
+    static int[] generateBoard(String filename, int size, long seed, boolean binary) throws IOException {
+        SplittableRandom rand = new SplittableRandom(seed);
+        int startRow = rand.nextInt(size);
+        int startCol = rand.nextInt(size);
+        int[] row = new int[size];
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
-            writer.println(size); // ✅ First line: board size
-            int startRow = rand.nextInt(size);
-            int startCol = rand.nextInt(size);
-            writer.println(startRow + " " + startCol); // ✅ Second line: start position
+        if (binary) {
+            // ✅ Header, 4 bits per cell, CRC32 (see BoardFormat); rows are streamed, never held whole
+            try (BoardFormat.BinaryWriter writer = new BoardFormat.BinaryWriter(
+                    new FileOutputStream(filename), size, startRow, startCol)) {
+                for (int i = 0; i < size; i++) {
+                    fillRow(rand, row);
+                    writer.writeRow(row);
+                }
+            }
+            return new int[]{startRow, startCol};
+        }
 
+        try (Writer writer = new BufferedWriter(new FileWriter(filename), 1 << 16)) {
+            writer.write(size + "\n"); // ✅ First line: board size
+            writer.write(startRow + " " + startCol + "\n"); // ✅ Second line: start position
+
+            char[] line = new char[2 * size];
             for (int i = 0; i < size; i++) {
+                fillRow(rand, row);
                 for (int j = 0; j < size; j++) {
-                    writer.print(rand.nextInt(9) + 1); // ✅ Random number between 1-9
-                    if (j < size - 1) writer.print(" ");
+                    line[2 * j] = (char) ('0' + row[j]);
+                    line[2 * j + 1] = j < size - 1 ? ' ' : '\n';
                 }
-                writer.println();
+                writer.write(line);
+            }
+        }
+        return new int[]{startRow, startCol};
+    }
+
+    private static void fillRow(SplittableRandom rand, int[] row) {
+        for (int j = 0; j < row.length; j++) {
+            row[j] = rand.nextInt(9) + 1; // ✅ Random number between 1-9
+        }
+    }
+
+    /**
+     * Per-board seeds for a corpus: drawn in order from one SplittableRandom on
+     * the master seed, so the same (masterSeed, sizes, count) always gives the
+     * same boards no matter how many threads generate them.
+     */
+    static long[] deriveSeeds(long masterSeed, int boards) {
+        SplittableRandom master = new SplittableRandom(masterSeed);
+        long[] seeds = new long[boards];
+        for (int i = 0; i < boards; i++) {
+            seeds[i] = master.nextLong();
+        }
+        return seeds;
+    }
+
+    private static void corpusMain(String[] args) {
+        if (args.length < 5) {
+            System.err.println("Usage: java game.InstanceGenerator corpus <outputDir|pack> <masterSeed> <size,size,...> <countPerSize> [text|binary]");
+            return;
+        }
+
+        String output = args[1];
+        long masterSeed = Long.parseLong(args[2]);
+        String[] sizeList = args[3].split(",");
+        int count = Integer.parseInt(args[4]);
+        boolean binary = args.length > 5 && args[5].equalsIgnoreCase("binary");
+
+        int[] sizes = new int[sizeList.length * count];
+        int[] ids = new int[sizes.length];
+        for (int s = 0; s < sizeList.length; s++) {
+            for (int i = 0; i < count; i++) {
+                sizes[s * count + i] = Integer.parseInt(sizeList[s].trim());
+                ids[s * count + i] = i + 1;
+            }
+        }
+        long[] seeds = deriveSeeds(masterSeed, sizes.length);
+
+        long start = System.nanoTime();
+        try {
+            if (output.endsWith(".pack")) {
+                writePack(output, masterSeed, sizes, seeds);
+            } else {
+                writeDirectory(new File(output), masterSeed, sizes, ids, seeds, binary);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error generating corpus: " + e.getMessage());
+            return;
+        }
+        System.out.printf("🚀 Generated %d boards in %.2f s (master seed %d)%n",
+                sizes.length, (System.nanoTime() - start) / 1e9, masterSeed);
+    }
+
+    private static void writeDirectory(File dir, long masterSeed, int[] sizes, int[] ids, long[] seeds,
+                                       boolean binary) throws IOException {
+        dir.mkdirs();
+        String[] lines = new String[sizes.length];
+        IntStream.range(0, sizes.length).parallel().forEach(i -> {
+            String name = String.format("board_%dx%d_%d.dat", sizes[i], sizes[i], ids[i]);
+            try {
+                int[] startCell = generateBoard(new File(dir, name).getPath(), sizes[i], seeds[i], binary);
+                lines[i] = manifestLine(ids[i], sizes[i], seeds[i], startCell[0], startCell[1], name);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writeManifest(new File(dir, "manifest.txt"), masterSeed, lines);
+    }
+
+    // Pack ids run 1..N across all sizes, so each board can also be extracted by id alone
+    private static void writePack(String packFile, long masterSeed, int[] sizes, long[] seeds) throws IOException {
+        String[] lines = new String[sizes.length];
+        try (BoardPack pack = BoardPack.openForAppend(packFile)) {
+            int firstId = pack.nextId();
+            for (int from = 0; from < sizes.length; from += PACK_BATCH) {
+                int to = Math.min(sizes.length, from + PACK_BATCH);
+                Tester.BoardData[] batch = new Tester.BoardData[to - from];
+                int base = from;
+                IntStream.range(from, to).parallel().forEach(i -> batch[i - base] = generate(sizes[i], seeds[i]));
+
+                int[] ids = new int[batch.length];
+                long[] batchSeeds = new long[batch.length];
+                List<Tester.BoardData> boards = new ArrayList<>(batch.length);
+                for (int i = from; i < to; i++) {
+                    Tester.BoardData data = batch[i - from];
+                    ids[i - from] = firstId + i;
+                    batchSeeds[i - from] = seeds[i];
+                    boards.add(data);
+                    lines[i] = manifestLine(firstId + i, sizes[i], seeds[i], data.startRow, data.startCol,
+                            packFile + "#" + (firstId + i));
+                }
+                pack.appendAll(boards, ids, batchSeeds);
+            }
+        }
+        writeManifest(new File(packFile + ".manifest.txt"), masterSeed, lines);
+    }
+
+    private static String manifestLine(int id, int size, long seed, int startRow, int startCol, String file) {
+        return id + " " + size + " " + seed + " " + startRow + " " + startCol + " " + file;
+    }
+
+    private static void writeManifest(File file, long masterSeed, String[] lines) throws IOException {
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file, UTF_8)))) {
+            out.println("# masterSeed=" + masterSeed + " (regenerate one board: java game.InstanceGenerator <file> <size> text <seed>)");
+            out.println("# id size seed startRow startCol file");
+            for (String line : lines) {
+                out.println(line);
             }
-        } catch (IOException e) {
-            System.err.println("Error generating board: " + e.getMessage());
         }
     }
 }
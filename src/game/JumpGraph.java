@@ -0,0 +1,148 @@
+package game;
+
+/**
+ * The static move graph of a grid: for every cell and direction, where a jump
+ * lands and how many cells it crosses. Both depend only on the grid (the first
+ * number in a direction fixes the step), so the table is built once and shared
+ * by every {@link Board} copy on that grid. A jump is legal at run time exactly
+ * when its static target exists and none of the {@code step} cells on its path
+ * has been visited since.
+ * <p>
+ * Cells are indexed {@code row * size + col}, directions as in
+ * {@link Move#getDirection()}. The path of a jump from {@code cell} in
+ * direction {@code d} is {@code cell + k * delta(d)} for {@code k = 1..step}.
+ */
+public final class JumpGraph {
+    /** Boards with more cells than this walk rays instead (the table costs 9 bytes per cell and direction). */
+    static final int MAX_CELLS = 1 << 18;
+
+    private final int size;
+    private final int[] targets; // [cell * 8 + d]: landing cell, or -1 when the jump leaves the board
+    private final byte[] steps;  // [cell * 8 + d]: cells crossed, or 0
+    private final byte[] masks;  // [cell]: directions with a static target
+    private final int maxStep;
+    private int[] reverseStart;  // CSR of reverse edges, built on first use
+    private int[] reverseSources;
+
+    private JumpGraph(PackedGrid grid) {
+        this.size = grid.getSize();
+        int cells = size * size;
+        this.targets = new int[cells * 8];
+        this.steps = new byte[cells * 8];
+        this.masks = new byte[cells];
+        int longest = 0;
+
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int cell = row * size + col;
+                int mask = 0;
+                for (int d = 0; d < 8; d++) {
+                    int e = cell * 8 + d;
+                    targets[e] = -1;
+                    int r = row + Board.D_ROW[d];
+                    int c = col + Board.D_COL[d];
+                    if (r < 0 || r >= size || c < 0 || c >= size) continue;
+
+                    int step = grid.get(r, c);
+                    int tr = row + Board.D_ROW[d] * step;
+                    int tc = col + Board.D_COL[d] * step;
+                    if (step < 1 || tr < 0 || tr >= size || tc < 0 || tc >= size) continue;
+
+                    targets[e] = tr * size + tc;
+                    steps[e] = (byte) step;
+                    longest = Math.max(longest, step);
+                    mask |= 1 << d;
+                }
+                masks[cell] = (byte) mask;
+            }
+        }
+        this.maxStep = longest;
+    }
+
+    /** Builds the table for a square grid; O(8 N²) time and memory. */
+    public static JumpGraph of(int[][] grid) {
+        return new JumpGraph(PackedGrid.of(grid));
+    }
+
+    /**
+     * The entry point from before {@link PackedGrid}, kept for existing callers.
+     *
+     * @deprecated the grid already fixes the size; use {@link #of(int[][])}
+     */
+    @Deprecated
+    public static JumpGraph of(int size, int[][] grid) {
+        if (size != grid.length) {
+            throw new IllegalArgumentException("Size " + size + " does not match a grid of " + grid.length + " rows");
+        }
+        return of(grid);
+    }
+
+    /** Builds the table for a packed grid, as every {@link Board} does; O(8 N²) time and memory. */
+    public static JumpGraph of(PackedGrid grid) {
+        return new JumpGraph(grid);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /** Landing cell of the jump from {@code cell} in {@code direction}, or -1 if it leaves the board. */
+    public int target(int cell, int direction) {
+        return targets[cell * 8 + direction];
+    }
+
+    /** Number of cells the jump crosses, including its landing cell; 0 if it has no target. */
+    public int step(int cell, int direction) {
+        return steps[cell * 8 + direction];
+    }
+
+    /** Longest step of any jump; a cell lies on paths starting at most this far away. */
+    public int maxStep() {
+        return maxStep;
+    }
+
+    /** Directions from {@code cell} that stay on the board, ignoring visited cells. */
+    public int staticMask(int cell) {
+        return masks[cell] & 0xFF;
+    }
+
+    /** Out-degree of {@code cell} on the empty board. */
+    public int outDegree(int cell) {
+        return Integer.bitCount(masks[cell] & 0xFF);
+    }
+
+    /** How many cells have a jump landing on {@code cell}. */
+    public int inDegree(int cell) {
+        buildReverseEdges();
+        return reverseStart[cell + 1] - reverseStart[cell];
+    }
+
+    /** Cells with a jump landing on {@code cell}, as a new array. */
+    public int[] predecessors(int cell) {
+        buildReverseEdges();
+        int from = reverseStart[cell];
+        int[] result = new int[reverseStart[cell + 1] - from];
+        System.arraycopy(reverseSources, from, result, 0, result.length);
+        return result;
+    }
+
+    // Shared across threads by every Board on this grid, hence synchronized
+    private synchronized void buildReverseEdges() {
+        if (reverseStart != null) return;
+        int cells = size * size;
+        int[] start = new int[cells + 1];
+        for (int target : targets) {
+            if (target >= 0) start[target + 1]++;
+        }
+        for (int i = 0; i < cells; i++) {
+            start[i + 1] += start[i];
+        }
+        int[] fill = start.clone();
+        int[] sources = new int[start[cells]];
+        for (int e = 0; e < targets.length; e++) {
+            if (targets[e] >= 0) sources[fill[targets[e]]++] = e >>> 3;
+        }
+        reverseSources = sources;
+        reverseStart = start;
+    }
+}
@@ -0,0 +1,87 @@
+package game;
+
+/**
+ * HDR-style histogram of non-negative longs (nanoseconds here): values below 128
+ * are counted exactly, larger ones in 64 buckets per power of two, so every
+ * recorded value is known to within 1/64 (1.6%) whatever its magnitude.
+ * Recording is a few shifts and one array increment. Not thread-safe; each game
+ * records into its own histogram and they are {@link #add merged} afterwards.
+ */
+final class LatencyHistogram {
+    private static final int LINEAR = 128;      // Values below this get a bucket each
+    private static final int PER_OCTAVE = 64;   // Buckets per power of two above it
+    private static final int BUCKETS = LINEAR + 57 * PER_OCTAVE;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long max;
+
+    void record(long value) {
+        long v = Math.max(0, value);
+        counts[indexOf(v)]++;
+        count++;
+        sum += v;
+        max = Math.max(max, v);
+    }
+
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    long getSum() {
+        return sum;
+    }
+
+    long getMax() {
+        return max;
+    }
+
+    double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /** Smallest bucket bound with at least {@code percentile}% of the values at or below it (capped at the max). */
+    long valueAtPercentile(double percentile) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(upperBound(i), max);
+        }
+        return max;
+    }
+
+    /** How many values are at most {@code value}, as exact as the buckets allow (for Prometheus {@code le}). */
+    long countAtOrBelow(long value) {
+        if (value >= max) return count;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS && upperBound(i) <= value; i++) {
+            seen += counts[i];
+        }
+        return seen;
+    }
+
+    private static int indexOf(long v) {
+        if (v < LINEAR) return (int) v;
+        int shift = 64 - Long.numberOfLeadingZeros(v) - 7; // Leaves v >>> shift in [64, 128)
+        return LINEAR + (shift - 1) * PER_OCTAVE + (int) (v >>> shift) - PER_OCTAVE;
+    }
+
+    private static long upperBound(int index) {
+        if (index < LINEAR) return index;
+        int shift = (index - LINEAR) / PER_OCTAVE + 1;
+        long mantissa = (index - LINEAR) % PER_OCTAVE + PER_OCTAVE;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
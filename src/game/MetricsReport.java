@@ -0,0 +1,118 @@
+package game;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.ToDoubleFunction;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * {@link MoveMetrics} of a whole tournament, merged per player and board size,
+ * and written next to {@code TotalScores.txt} as {@code metrics.json}
+ * (percentiles, GC and allocation totals, timed-out moves) and
+ * {@code metrics.prom} (Prometheus text format, for dashboards).
+ */
+final class MetricsReport {
+    // Prometheus histogram bounds in seconds; the referee's default limit is 1 s
+    private static final double[] BUCKETS_SECONDS = {0.0001, 0.001, 0.005, 0.01, 0.05, 0.1, 0.25, 0.5, 1, 2, 5};
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, Map<Integer, MoveMetrics>> byPlayer = new TreeMap<>();
+
+    synchronized void add(String studentID, int size, MoveMetrics game) {
+        byPlayer.computeIfAbsent(studentID, id -> new TreeMap<>())
+                .computeIfAbsent(size, s -> new MoveMetrics())
+                .add(game);
+    }
+
+    synchronized void writeJson(File file) throws IOException {
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file, UTF_8)))) {
+            out.println("{\"players\": [");
+            String separator = "";
+            for (Map.Entry<String, Map<Integer, MoveMetrics>> player : byPlayer.entrySet()) {
+                for (Map.Entry<Integer, MoveMetrics> size : player.getValue().entrySet()) {
+                    MoveMetrics m = size.getValue();
+                    out.print(separator);
+                    out.printf(Locale.ROOT, "  {\"player\": \"%s\", \"size\": %d, \"games\": %d, \"moves\": %d, \"timeouts\": %d,%n",
+                            escape(player.getKey()), size.getKey(), m.getGames(), m.getMoves(), m.getTimeouts());
+                    out.printf(Locale.ROOT, "   \"allocatedBytes\": %d, \"gcCount\": %d, \"gcMillis\": %d,%n",
+                            m.getAllocatedBytes(), m.getGcCount(), m.getGcMillis());
+                    out.println("   \"wallNanos\": " + summary(m.getWall()) + ",");
+                    out.println("   \"cpuNanos\": " + summary(m.getCpu()) + ",");
+                    out.print("   \"timeoutMoves\": [" + String.join(", ", m.getTimeoutMoves()) + "]}");
+                    separator = ",\n";
+                }
+            }
+            out.println();
+            out.println("]}");
+        }
+    }
+
+    private static String summary(LatencyHistogram h) {
+        StringBuilder json = new StringBuilder(String.format(Locale.ROOT, "{\"count\": %d, \"mean\": %.0f",
+                h.getCount(), h.getMean()));
+        for (double p : PERCENTILES) {
+            json.append(String.format(Locale.ROOT, ", \"p%s\": %d",
+                    p == Math.rint(p) ? Long.toString((long) p) : Double.toString(p).replace(".", ""),
+                    h.valueAtPercentile(p)));
+        }
+        return json.append(", \"max\": ").append(h.getMax()).append('}').toString();
+    }
+
+    synchronized void writePrometheus(File file) throws IOException {
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file, UTF_8)))) {
+            histogram(out, "stuck_move_wall_seconds", "Wall-clock time of nextMove() calls.", true);
+            histogram(out, "stuck_move_cpu_seconds", "CPU time of nextMove() calls.", false);
+            counter(out, "stuck_games_total", "Games played.", m -> m.getGames());
+            counter(out, "stuck_move_timeouts_total", "Moves that exceeded their budget.", m -> m.getTimeouts());
+            counter(out, "stuck_move_allocated_bytes_total", "Bytes allocated by the player's thread during moves.",
+                    m -> m.getAllocatedBytes());
+            counter(out, "stuck_move_gc_total", "Collections that finished during a move.", m -> m.getGcCount());
+            counter(out, "stuck_move_gc_seconds_total", "Collection time accumulated during moves.",
+                    m -> m.getGcMillis() / 1000.0);
+        }
+    }
+
+    private void histogram(PrintWriter out, String name, String help, boolean wall) {
+        out.println("# HELP " + name + " " + help);
+        out.println("# TYPE " + name + " histogram");
+        forEach((labels, m) -> {
+            LatencyHistogram h = wall ? m.getWall() : m.getCpu();
+            for (double bound : BUCKETS_SECONDS) {
+                out.printf(Locale.ROOT, "%s_bucket{%s,le=\"%s\"} %d%n", name, labels, BigDecimal.valueOf(bound).stripTrailingZeros().toPlainString(),
+                        h.countAtOrBelow((long) (bound * 1e9)));
+            }
+            out.printf(Locale.ROOT, "%s_bucket{%s,le=\"+Inf\"} %d%n", name, labels, h.getCount());
+            out.printf(Locale.ROOT, "%s_sum{%s} %.9f%n", name, labels, h.getSum() / 1e9);
+            out.printf(Locale.ROOT, "%s_count{%s} %d%n", name, labels, h.getCount());
+        });
+    }
+
+    private void counter(PrintWriter out, String name, String help, ToDoubleFunction<MoveMetrics> value) {
+        out.println("# HELP " + name + " " + help);
+        out.println("# TYPE " + name + " counter");
+        forEach((labels, m) -> out.printf(Locale.ROOT, "%s{%s} %s%n", name, labels, format(value.applyAsDouble(m))));
+    }
+
+    // Backslashes and quotes are escaped the same way in JSON strings and Prometheus labels
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private void forEach(BiConsumer<String, MoveMetrics> action) {
+        for (Map.Entry<String, Map<Integer, MoveMetrics>> player : byPlayer.entrySet()) {
+            for (Map.Entry<Integer, MoveMetrics> size : player.getValue().entrySet()) {
+                String labels = "player=\"" + escape(player.getKey()) + "\",size=\"" + size.getKey() + "\"";
+                action.accept(labels, size.getValue());
+            }
+        }
+    }
+}
@@ -1,12 +1,27 @@
 package game;
 
 public class Move {
+    // ✅ Interned moves for the eight directions, in the order getPossibleMoves() reports them
+    public static final Move N = new Move(-1, 0);
+    public static final Move S = new Move(1, 0);
+    public static final Move W = new Move(0, -1);
+    public static final Move E = new Move(0, 1);
+    public static final Move NW = new Move(-1, -1);
+    public static final Move NE = new Move(-1, 1);
+    public static final Move SW = new Move(1, -1);
+    public static final Move SE = new Move(1, 1);
+
+    private static final Move[] DIRECTIONS = {N, S, W, E, NW, NE, SW, SE};
+    private static final String[] NAMES = {"N", "S", "W", "E", "NW", "NE", "SW", "SE"};
+
     private final int dRow;
     private final int dCol;
+    private final int direction;
 
     public Move(int dRow, int dCol) {
         this.dRow = dRow;
         this.dCol = dCol;
+        this.direction = directionOf(dRow, dCol);
     }
 
     public int getDRow() {
@@ -16,4 +31,44 @@ public class Move {
     public int getDCol() {
         return dCol;
     }
+
+    /**
+     * Index of this move among the eight directions (0-7), the bit it occupies in
+     * {@link Board#legalMoveMask()}, or -1 if it is not a unit step.
+     */
+    public int getDirection() {
+        return direction;
+    }
+
+    /** The interned move for a direction index (0-7). */
+    public static Move of(int direction) {
+        return DIRECTIONS[direction];
+    }
+
+    static int directionOf(int dRow, int dCol) {
+        if (dRow < -1 || dRow > 1 || dCol < -1 || dCol > 1 || (dRow == 0 && dCol == 0)) {
+            return -1;
+        }
+        if (dRow == 0) return dCol < 0 ? 2 : 3;
+        if (dCol == 0) return dRow < 0 ? 0 : 1;
+        return (dRow < 0 ? 4 : 6) + (dCol < 0 ? 0 : 1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Move)) return false;
+        Move other = (Move) o;
+        return dRow == other.dRow && dCol == other.dCol;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * dRow + dCol;
+    }
+
+    @Override
+    public String toString() {
+        return direction >= 0 ? NAMES[direction] : "(" + dRow + ", " + dCol + ")";
+    }
 }
@@ -0,0 +1,87 @@
+package game;
+
+/**
+ * Time allowed for one {@code nextMove()} call.
+ * <p>
+ * A move times out when it exceeds the wall-clock limit, or, when a CPU budget
+ * is set, when the player's thread has burned more CPU time than that budget.
+ * CPU budgets are fairer on a loaded grading box: time lost to other games
+ * competing for cores is not charged to the player, while the wall limit still
+ * catches players that sleep or block.
+ * <p>
+ * What counts as the player's CPU depends on where it runs. In a worker JVM
+ * ({@code -Dstuck.playerProcesses=true}) it is the CPU of that whole process,
+ * so helper threads, such as a ForkJoinPool the player fans out to, are
+ * charged along with its own collections. In the referee's JVM only the
+ * thread running {@code nextMove()} is measured. Helper threads there are
+ * free, and only the wall limit holds them back, so grade multi-threaded
+ * players in worker JVMs.
+ */
+public final class MoveBudget {
+    /** What Referee has always enforced: one wall-clock second per move. */
+    public static final MoveBudget DEFAULT = wallClock(1_000_000_000L);
+
+    private final long cpuNanos;
+    private final long wallNanos;
+
+    private MoveBudget(long cpuNanos, long wallNanos) {
+        if (wallNanos <= 0) {
+            throw new IllegalArgumentException("Wall-clock limit must be positive: " + wallNanos);
+        }
+        this.cpuNanos = cpuNanos;
+        this.wallNanos = wallNanos;
+    }
+
+    public static MoveBudget wallClock(long wallNanos) {
+        return new MoveBudget(0, wallNanos);
+    }
+
+    /** CPU-time budget with a wall-clock safety cap for players that block instead of compute. */
+    public static MoveBudget cpuTime(long cpuNanos, long wallNanos) {
+        return new MoveBudget(cpuNanos, wallNanos);
+    }
+
+    /**
+     * CPU budget of {@code baseNanos + nanosPerCell * size²}, with the wall-clock
+     * cap at {@code wallFactor} times that.
+     */
+    public static MoveBudget scaled(long baseNanos, long nanosPerCell, int size, double wallFactor) {
+        long cpu = baseNanos + nanosPerCell * size * size;
+        return cpuTime(cpu, (long) (cpu * wallFactor));
+    }
+
+    /**
+     * Budget for a board of the given size, configured through system properties:
+     * {@code stuck.cpuBudgetMillis} (base CPU budget; unset keeps {@link #DEFAULT}),
+     * {@code stuck.cpuBudgetNanosPerCell} (default 0) and {@code stuck.wallFactor} (default 2).
+     */
+    public static MoveBudget forBoardSize(int size) {
+        Long baseMillis = Long.getLong("stuck.cpuBudgetMillis");
+        if (baseMillis == null) {
+            return DEFAULT;
+        }
+        long perCell = Long.getLong("stuck.cpuBudgetNanosPerCell", 0L);
+        double wallFactor = Double.parseDouble(System.getProperty("stuck.wallFactor", "2"));
+        return scaled(baseMillis * 1_000_000L, perCell, size, wallFactor);
+    }
+
+    /** CPU budget in nanoseconds, or 0 when only wall-clock time is enforced. */
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    public boolean hasCpuBudget() {
+        return cpuNanos > 0;
+    }
+
+    @Override
+    public String toString() {
+        return hasCpuBudget()
+                ? String.format("%.3f ms CPU / %.3f ms wall", cpuNanos / 1e6, wallNanos / 1e6)
+                : String.format("%.3f ms wall", wallNanos / 1e6);
+    }
+}
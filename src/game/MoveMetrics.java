@@ -0,0 +1,102 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Per-move measurements of one player: wall and CPU time of every
+ * {@code nextMove()} call in {@link LatencyHistogram}s, plus the bytes the
+ * player's thread allocated and the GC activity that overlapped its moves.
+ * Moves that timed out are also kept one by one, so a disputed timeout can be
+ * checked against what the JVM was doing at the time.
+ * <p>
+ * Referee records one game into a fresh instance. {@link MetricsReport} merges
+ * them per player and board size.
+ */
+public final class MoveMetrics {
+    private static final int MAX_TIMEOUTS_KEPT = 20;
+
+    private final LatencyHistogram wall = new LatencyHistogram();
+    private final LatencyHistogram cpu = new LatencyHistogram();
+    private long allocatedBytes;
+    private long gcCount;
+    private long gcMillis;
+    private int games;
+    private int timeouts;
+    private final List<String> timeoutMoves = new ArrayList<>();
+
+    void record(PlayerHandle worker) {
+        wall.record(worker.getWallNanos());
+        cpu.record(worker.getCpuNanos());
+        allocatedBytes += worker.getAllocatedBytes();
+        gcCount += worker.getGcCount();
+        gcMillis += worker.getGcMillis();
+    }
+
+    /** Records a move that ran out of budget, with where it happened. */
+    void recordTimeout(PlayerHandle worker, int boardId, int size, int step) {
+        record(worker);
+        timeouts++;
+        if (timeoutMoves.size() < MAX_TIMEOUTS_KEPT) {
+            timeoutMoves.add(String.format(Locale.ROOT,
+                    "{\"board\": %d, \"size\": %d, \"step\": %d, \"wallNanos\": %d, \"cpuNanos\": %d,"
+                            + " \"allocatedBytes\": %d, \"gcCount\": %d, \"gcMillis\": %d}",
+                    boardId, size, step, worker.getWallNanos(), worker.getCpuNanos(),
+                    worker.getAllocatedBytes(), worker.getGcCount(), worker.getGcMillis()));
+        }
+    }
+
+    void finishGame() {
+        games++;
+    }
+
+    synchronized void add(MoveMetrics game) {
+        wall.add(game.wall);
+        cpu.add(game.cpu);
+        allocatedBytes += game.allocatedBytes;
+        gcCount += game.gcCount;
+        gcMillis += game.gcMillis;
+        games += game.games;
+        timeouts += game.timeouts;
+        for (String move : game.timeoutMoves) {
+            if (timeoutMoves.size() < MAX_TIMEOUTS_KEPT) timeoutMoves.add(move);
+        }
+    }
+
+    LatencyHistogram getWall() {
+        return wall;
+    }
+
+    LatencyHistogram getCpu() {
+        return cpu;
+    }
+
+    long getMoves() {
+        return wall.getCount();
+    }
+
+    long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    long getGcCount() {
+        return gcCount;
+    }
+
+    long getGcMillis() {
+        return gcMillis;
+    }
+
+    int getGames() {
+        return games;
+    }
+
+    int getTimeouts() {
+        return timeouts;
+    }
+
+    List<String> getTimeoutMoves() {
+        return timeoutMoves;
+    }
+}
@@ -0,0 +1,119 @@
+package game;
+
+/**
+ * An immutable grid of cell values (0-15) packed 4 bits per cell, 16 cells per
+ * long, row-major in one flat array. A 10,000 x 10,000 board takes 50 MB here
+ * instead of 400 MB as {@code int[][]}, and every {@link Board} copy or fork
+ * shares the same instance.
+ * <p>
+ * Cell {@code i = row * size + col} is bits {@code 4 * (i % 16)} and up of
+ * {@code words[i / 16]}.
+ */
+public final class PackedGrid {
+    /** Largest board whose cell indices still fit in an int. */
+    static final int MAX_SIZE = 46_340;
+
+    private final int size;
+    private final long[] words;
+
+    private PackedGrid(int size, long[] words) {
+        this.size = size;
+        this.words = words;
+    }
+
+    /** Packs an {@code int[][]} grid; values must be in 0-15. */
+    public static PackedGrid of(int[][] grid) {
+        Builder builder = new Builder(grid.length);
+        for (int r = 0; r < grid.length; r++) {
+            builder.setRow(r, grid[r]);
+        }
+        return builder.build();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int get(int row, int col) {
+        return get(row * size + col);
+    }
+
+    /** Value of cell {@code row * size + col}. */
+    public int get(int cell) {
+        return (int) (words[cell >>> 4] >>> ((cell & 15) << 2)) & 15;
+    }
+
+    /** Unpacks one row into {@code into}, which must hold at least {@code size} values. */
+    public void copyRow(int row, int[] into) {
+        int cell = row * size;
+        long word = words[cell >>> 4] >>> ((cell & 15) << 2);
+        for (int c = 0; c < size; c++, cell++) {
+            if ((cell & 15) == 0) {
+                word = words[cell >>> 4];
+            }
+            into[c] = (int) word & 15;
+            word >>>= 4;
+        }
+    }
+
+    /** A 64-bit hash of the size and every cell, to tell whether data computed for a grid belongs to this one. */
+    public long checksum() {
+        long hash = Zobrist.mix(size);
+        for (long word : words) {
+            hash = Zobrist.mix(hash ^ word);
+        }
+        return hash;
+    }
+
+    public int[][] toArray() {
+        int[][] grid = new int[size][size];
+        for (int r = 0; r < size; r++) {
+            copyRow(r, grid[r]);
+        }
+        return grid;
+    }
+
+    /** Fills a grid row by row (or cell by cell), so loaders never hold an unpacked copy. */
+    static final class Builder {
+        private final int size;
+        private long[] words;
+
+        Builder(int size) {
+            if (size <= 0 || size > MAX_SIZE) {
+                throw new IllegalArgumentException("Board size " + size + " is out of range 1-" + MAX_SIZE);
+            }
+            this.size = size;
+            this.words = new long[(size * size + 15) >>> 4];
+        }
+
+        Builder set(int row, int col, int value) {
+            if (value < 0 || value > 15) {
+                throw new IllegalArgumentException("Cell value " + value + " does not fit in 4 bits.");
+            }
+            int cell = row * size + col;
+            int shift = (cell & 15) << 2;
+            words[cell >>> 4] = words[cell >>> 4] & ~(15L << shift) | (long) value << shift;
+            return this;
+        }
+
+        Builder setRow(int row, int[] values) {
+            for (int c = 0; c < size; c++) {
+                set(row, c, values[c]);
+            }
+            return this;
+        }
+
+        /** Sets cells {@code 16 * index} to {@code 16 * index + 15} at once, laid out as in {@link PackedGrid}. */
+        Builder setWord(int index, long cells) {
+            words[index] = cells;
+            return this;
+        }
+
+        /** The grid; the builder cannot be used afterwards. */
+        PackedGrid build() {
+            PackedGrid grid = new PackedGrid(size, words);
+            words = null;
+            return grid;
+        }
+    }
+}
@@ -0,0 +1,499 @@
+package game;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Multi-core version of {@link Solver}: the same iterative deepening with the
+ * same answers, with each depth's tree spread over a {@link ForkJoinPool}.
+ * <p>
+ * Each depth starts from the positions {@code CHECKPOINT_PLIES} moves from the
+ * root. Their subtrees keep forking children while the pool is short of
+ * queued work and then search sequentially on their own board copy, so idle
+ * workers steal whatever is left. All workers share a lock-free transposition
+ * table of refuted positions and one best bound. The first line found at the
+ * current depth lowers the bound, which stops every other worker.
+ * <p>
+ * With {@link #setCheckpointFile(File)}, progress is saved as text: the proven
+ * bounds, the best line, the depth in progress and which starting positions of
+ * that depth are already refuted. It is saved at most every
+ * {@code CHECKPOINT_INTERVAL_MILLIS}, after each depth and when time runs out.
+ * A later solve of the same position resumes from it.
+ * <p>
+ * With {@link #setTablebase(Tablebase)} (or {@code -Dstuck.tablebase=<file>}
+ * on the command line), positions the table covers are answered from it.
+ * <pre>
+ * java game.ParallelSolver &lt;boardFile&gt; [seconds] [checkpointFile|-] [threads]
+ * </pre>
+ */
+public class ParallelSolver {
+    private static final int TIME_CHECK_INTERVAL = 4096;
+    private static final int TABLE_BITS = 22;
+    private static final int CHECKPOINT_PLIES = 2;
+    private static final int MIN_SPLIT_REMAINING = 4;  // Smaller subtrees are cheaper to search than to fork
+    private static final int MAX_SURPLUS_TASKS = 3;
+    private static final long CHECKPOINT_INTERVAL_MILLIS = 10_000;
+
+    private final Board root;
+    private final ReachabilityAnalyzer reachability;
+    private final ForkJoinPool pool;
+    private final ConcurrentTable table = new ConcurrentTable(TABLE_BITS);
+    private final LongAdder nodes = new LongAdder();
+    private File checkpointFile;
+    private Tablebase tablebase;
+
+    private volatile long deadline;
+    private volatile boolean aborted;
+    private AtomicInteger bound;
+    private int depth;
+    private List<Move> found;
+    private Set<Integer> refutedStarts;
+    private int lowerBound;
+    private List<Move> bestLine;
+    private long lastCheckpoint;
+
+    public ParallelSolver(Board board) {
+        this(board, ForkJoinPool.commonPool());
+    }
+
+    public ParallelSolver(Board board, ForkJoinPool pool) {
+        this.root = new Board(board);
+        this.reachability = new ReachabilityAnalyzer(root);
+        this.pool = pool;
+    }
+
+    /** Saves progress to {@code file} and resumes from it if it already holds a checkpoint of this position. */
+    public void setCheckpointFile(File file) {
+        this.checkpointFile = file;
+    }
+
+    /** As {@link Solver#setTablebase}. */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /** Same contract as {@link Solver#solve(long)}. */
+    public Solver.Result solve(long timeLimitMillis) {
+        long start = System.nanoTime();
+        deadline = start + timeLimitMillis * 1_000_000L;
+        aborted = false;
+        nodes.reset();
+        List<Move> known = tablebase == null ? null : tablebase.line(root);
+        if (known != null) {
+            return new Solver.Result(known.size(), known.size(), known, 0, System.nanoTime() - start);
+        }
+
+        int resumeDepth = -1;
+        Set<Integer> resumed = Collections.emptySet();
+        Checkpoint saved = readCheckpoint();
+        if (saved != null) {
+            lowerBound = saved.lowerBound;
+            bestLine = saved.bestLine;
+            resumeDepth = saved.depth;
+            resumed = saved.refutedStarts;
+        } else {
+            lowerBound = 0;
+            bestLine = Solver.greedyUpperBound(root, new Random(0x5EED), deadline);
+        }
+        bound = new AtomicInteger(bestLine.size());
+
+        // ✅ Each completed depth proves that no shorter line gets stuck
+        for (depth = lowerBound; depth < bound.get() && !aborted; depth++) {
+            found = null;
+            refutedStarts = ConcurrentHashMap.newKeySet();
+            if (depth == resumeDepth) {
+                refutedStarts.addAll(resumed);
+            }
+
+            pool.invoke(new DepthTask());
+            if (found != null) {
+                bestLine = found;
+                lowerBound = depth;
+                break;
+            }
+            if (!aborted) {
+                lowerBound = depth + 1;
+                refutedStarts.clear();
+            }
+            writeCheckpoint(true);
+        }
+        if (found != null || lowerBound >= bestLine.size()) {
+            writeCheckpoint(true);
+        }
+
+        return new Solver.Result(lowerBound, bestLine.size(), bestLine, nodes.sum(), System.nanoTime() - start);
+    }
+
+    private boolean stopped() {
+        return aborted || bound.get() <= depth;
+    }
+
+    private synchronized void lineFound(List<Move> line) {
+        if (found == null || line.size() < found.size()) {
+            found = line;
+        }
+        bound.accumulateAndGet(line.size(), Math::min);
+    }
+
+    /** One depth of the iterative deepening: a task per start position not yet refuted. */
+    private final class DepthTask extends RecursiveTask<Void> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected Void compute() {
+            int plies = Math.min(CHECKPOINT_PLIES, depth);
+            List<StartTask> starts = new ArrayList<>();
+            Board board = new Board(root);
+            collectStarts(board, reachability.copyFor(board), plies, 0, new ArrayList<>(), starts);
+            ForkJoinTask.invokeAll(starts);
+            return null;
+        }
+
+        // Start positions are numbered by their moves in base 8, which stays stable across resumes
+        private void collectStarts(Board board, ReachabilityAnalyzer analyzer, int plies, int id, List<Move> prefix,
+                                   List<StartTask> starts) {
+            int mask = board.legalMoveMask();
+            if (mask == 0) {
+                lineFound(new ArrayList<>(prefix)); // Only the root at depth 0; shorter lines were refuted earlier
+                return;
+            }
+            if (prefix.size() == plies) {
+                if (!refutedStarts.contains(id)) {
+                    Board start = new Board(board);
+                    starts.add(new StartTask(start, analyzer.copyFor(start), id, new ArrayList<>(prefix), depth - plies));
+                }
+                return;
+            }
+            for (; mask != 0; mask &= mask - 1) {
+                int direction = Integer.numberOfTrailingZeros(mask);
+                long undo = board.makeMove(direction);
+                analyzer.push();
+                prefix.add(Move.of(direction));
+                collectStarts(board, analyzer, plies, id * 8 + direction, prefix, starts);
+                prefix.remove(prefix.size() - 1);
+                board.undoMove(undo);
+                analyzer.pop();
+            }
+        }
+    }
+
+    private final class StartTask extends RecursiveTask<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final ReachabilityAnalyzer analyzer;
+        private final int id;
+        private final List<Move> prefix;
+        private final int remaining;
+
+        StartTask(Board board, ReachabilityAnalyzer analyzer, int id, List<Move> prefix, int remaining) {
+            this.board = board;
+            this.analyzer = analyzer;
+            this.id = id;
+            this.prefix = prefix;
+            this.remaining = remaining;
+        }
+
+        @Override
+        protected Void compute() {
+            List<Move> line = new SearchTask(board, analyzer, remaining).compute();
+            if (line != null) {
+                List<Move> full = new ArrayList<>(prefix);
+                full.addAll(line);
+                lineFound(full);
+            } else if (!stopped()) {
+                refutedStarts.add(id);
+                writeCheckpoint(false);
+            }
+            return null;
+        }
+    }
+
+    /** Searches one subtree; returns a line that gets stuck within {@code remaining} moves, or null. */
+    private final class SearchTask extends RecursiveTask<List<Move>> {
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final ReachabilityAnalyzer analyzer; // Follows board, as Solver's does
+        private final int remaining;
+        private long localNodes;
+
+        SearchTask(Board board, ReachabilityAnalyzer analyzer, int remaining) {
+            this.board = board;
+            this.analyzer = analyzer;
+            this.remaining = remaining;
+        }
+
+        @Override
+        protected List<Move> compute() {
+            // Small subtrees never reach search's node count, so every task checks the clock too
+            if (System.nanoTime() > deadline) {
+                aborted = true;
+            }
+            if (stopped()) return null;
+            int mask = board.legalMoveMask();
+            if (mask == 0) {
+                bound.accumulateAndGet(depth, Math::min); // Stop the other workers right away
+                return new ArrayList<>();
+            }
+            if (remaining < MIN_SPLIT_REMAINING || getSurplusQueuedTaskCount() > MAX_SURPLUS_TASKS) {
+                List<Move> line = new ArrayList<>();
+                boolean success = search(remaining, line);
+                nodes.add(localNodes);
+                if (!success) return null;
+                Collections.reverse(line);
+                return line;
+            }
+
+            nodes.increment();
+            long key = board.getZobristKey();
+            if (table.isRefuted(key, remaining)) return null;
+            if (analyzer.lowerBound(remaining) > remaining) {
+                table.storeRefuted(key, remaining);
+                return null;
+            }
+
+            List<SearchTask> children = new ArrayList<>(Integer.bitCount(mask));
+            for (int m = mask; m != 0; m &= m - 1) {
+                Board child = new Board(board);
+                ReachabilityAnalyzer childAnalyzer = analyzer.copyFor(child);
+                child.makeMove(Integer.numberOfTrailingZeros(m));
+                childAnalyzer.push();
+                children.add(new SearchTask(child, childAnalyzer, remaining - 1));
+            }
+            for (int i = children.size() - 1; i > 0; i--) {
+                children.get(i).fork();
+            }
+            List<Move> result = null;
+            for (int i = 0, m = mask; i < children.size(); i++, m &= m - 1) {
+                List<Move> line = i == 0 ? children.get(0).compute() : children.get(i).join();
+                if (line != null && result == null) {
+                    line.add(0, Move.of(Integer.numberOfTrailingZeros(m)));
+                    result = line;
+                }
+            }
+            if (result == null && !stopped()) {
+                table.storeRefuted(key, remaining);
+            }
+            return result;
+        }
+
+        // Sequential make/unmake search, as in Solver.search
+        private boolean search(int remaining, List<Move> line) {
+            if (++localNodes % TIME_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                aborted = true;
+            }
+            if (stopped()) return false;
+
+            int mask = board.legalMoveMask();
+            if (mask == 0) {
+                bound.accumulateAndGet(depth, Math::min);
+                return true;
+            }
+            long key = board.getZobristKey();
+            if (remaining == 0 || table.isRefuted(key, remaining)) return false;
+            int known = tablebase == null ? Tablebase.UNKNOWN : tablebase.probe(board);
+            if (known > remaining) {
+                table.storeRefuted(key, remaining);
+                return false;
+            }
+            if (known >= 0 && known < Tablebase.AT_LEAST) {
+                List<Move> rest = tablebase.line(board);
+                for (int i = rest.size() - 1; i >= 0; i--) {
+                    line.add(rest.get(i));
+                }
+                bound.accumulateAndGet(depth, Math::min);
+                return true;
+            }
+            if (analyzer.lowerBound(remaining) > remaining) {
+                table.storeRefuted(key, remaining);
+                return false;
+            }
+
+            for (; mask != 0; mask &= mask - 1) {
+                int direction = Integer.numberOfTrailingZeros(mask);
+                long undo = board.makeMove(direction);
+                analyzer.push();
+                boolean success = search(remaining - 1, line);
+                board.undoMove(undo);
+                analyzer.pop();
+                if (success) {
+                    line.add(Move.of(direction));
+                    return true;
+                }
+                if (stopped()) return false;
+            }
+
+            table.storeRefuted(key, remaining);
+            return false;
+        }
+    }
+
+    /**
+     * Lock-free version of Solver's refutation table: one long per slot, holding
+     * the key with its low byte replaced by the refuted depth. The slot index
+     * already fixes those low key bits.
+     */
+    private static final class ConcurrentTable {
+        private final AtomicLongArray entries;
+        private final int mask;
+
+        ConcurrentTable(int bits) {
+            entries = new AtomicLongArray(1 << bits);
+            mask = (1 << bits) - 1;
+        }
+
+        boolean isRefuted(long key, int remaining) {
+            long entry = entries.getPlain((int) key & mask);
+            return (entry & ~0xFFL) == (key & ~0xFFL) && (int) (entry & 0xFF) >= remaining;
+        }
+
+        void storeRefuted(long key, int remaining) {
+            entries.setPlain((int) key & mask, (key & ~0xFFL) | Math.min(remaining, 0xFF));
+        }
+    }
+
+    // ---------------------------------------------------------------- checkpoints
+
+    private static final class Checkpoint {
+        int lowerBound;
+        List<Move> bestLine;
+        int depth;
+        Set<Integer> refutedStarts = new HashSet<>();
+    }
+
+    // Identifies the position: grid values, visited cells and player cell
+    private String positionKey() {
+        long hash = root.getSize();
+        for (int r = 0; r < root.getSize(); r++) {
+            for (int c = 0; c < root.getSize(); c++) {
+                hash = Zobrist.mix(hash * 31 + root.getValueAt(r, c));
+            }
+        }
+        return root.getSize() + " " + Long.toHexString(hash) + " " + Long.toHexString(root.getZobristKey());
+    }
+
+    private synchronized void writeCheckpoint(boolean force) {
+        if (checkpointFile == null) return;
+        long now = System.nanoTime();
+        if (!force && now - lastCheckpoint < CHECKPOINT_INTERVAL_MILLIS * 1_000_000L) return;
+        lastCheckpoint = now;
+
+        List<Move> line = found != null ? found : bestLine;
+        StringBuilder text = new StringBuilder();
+        text.append("# ParallelSolver checkpoint\n");
+        text.append("position ").append(positionKey()).append('\n');
+        text.append("lower ").append(found != null ? found.size() : lowerBound).append('\n');
+        text.append("line");
+        for (Move move : line) {
+            text.append(' ').append(move.getDirection());
+        }
+        text.append('\n');
+        text.append("depth ").append(found != null ? line.size() : depth).append('\n');
+        text.append("refuted");
+        for (int id : new TreeSet<>(refutedStarts)) {
+            text.append(' ').append(id);
+        }
+        text.append('\n');
+
+        File temp = new File(checkpointFile.getPath() + ".tmp");
+        try {
+            Files.write(temp.toPath(), text.toString().getBytes(UTF_8));
+            Files.move(temp.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("📍 Could not write solver checkpoint " + checkpointFile + ": " + e.getMessage());
+        }
+    }
+
+    private Checkpoint readCheckpoint() {
+        if (checkpointFile == null || !checkpointFile.isFile()) return null;
+        try {
+            Checkpoint saved = new Checkpoint();
+            String position = null;
+            for (String line : Files.readAllLines(checkpointFile.toPath(), UTF_8)) {
+                if (line.startsWith("#") || line.isBlank()) continue;
+                String[] words = line.trim().split("\\s+");
+                switch (words[0]) {
+                    case "position":
+                        position = line.substring("position ".length()).trim();
+                        break;
+                    case "lower":
+                        saved.lowerBound = Integer.parseInt(words[1]);
+                        break;
+                    case "line":
+                        saved.bestLine = new ArrayList<>();
+                        for (int i = 1; i < words.length; i++) {
+                            saved.bestLine.add(Move.of(Integer.parseInt(words[i])));
+                        }
+                        break;
+                    case "depth":
+                        saved.depth = Integer.parseInt(words[1]);
+                        break;
+                    case "refuted":
+                        for (int i = 1; i < words.length; i++) {
+                            saved.refutedStarts.add(Integer.parseInt(words[i]));
+                        }
+                        break;
+                    default:
+                        throw new IOException("unknown entry '" + words[0] + "'");
+                }
+            }
+            if (!positionKey().equals(position) || saved.bestLine == null || !replays(saved.bestLine)) {
+                System.err.println("📍 Ignoring checkpoint " + checkpointFile + ": it belongs to another position.");
+                return null;
+            }
+            return saved;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("📍 Ignoring unreadable checkpoint " + checkpointFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // The saved line must really get stuck, or the upper bound it claims is worthless
+    private boolean replays(List<Move> line) {
+        Board board = new Board(root);
+        for (Move move : line) {
+            if (!board.applyMove(move)) return false;
+        }
+        return board.isGameOver();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java game.ParallelSolver <boardFile> [seconds] [checkpointFile|-] [threads]");
+            return;
+        }
+
+        Tester.BoardData data = Tester.loadBoardData(args[0]);
+        long seconds = args.length > 1 ? Long.parseLong(args[1]) : 60;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            ParallelSolver solver = new ParallelSolver(new Board(data.grid, data.startRow, data.startCol), pool);
+            if (args.length > 2 && !args[2].equals("-")) {
+                solver.setCheckpointFile(new File(args[2]));
+            }
+            String tableFile = System.getProperty("stuck.tablebase");
+            if (tableFile != null) {
+                solver.setTablebase(Tablebase.open(new File(tableFile).toPath(), data.grid));
+            }
+            Solver.Result result = solver.solve(seconds * 1000);
+            System.out.println(result + " on " + threads + " threads");
+            System.out.println("Best line: " + result.getBestLine());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
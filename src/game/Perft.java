@@ -0,0 +1,314 @@
+package game;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Move-generation counts ("perft"): how many sequences of exactly
+ * {@code depth} legal moves a board allows. It measures raw make/undo
+ * throughput, and any change to which moves are legal shows up as a
+ * different count.
+ * <p>
+ * Positions more than {@code MIN_SPLIT_DEPTH} moves above the leaves fork a
+ * task per move on a {@link ForkJoinPool}, each on its own {@link Board#fork()};
+ * smaller subtrees are counted with make/undo on one board. Sequences that
+ * get stuck before {@code depth} end there and are counted as {@code stuck}.
+ * <p>
+ * {@code reference} mode walks the same tree a second time alongside
+ * {@link ReferenceBoard}, a plain {@code int[][]}/{@code boolean[][]} copy of
+ * the original movement rules. At every node it checks that
+ * {@code legalMoveMask()}, {@code getPossibleMoves()} and the reference agree
+ * and that each move lands on the same cell. {@code divide} prints the count
+ * below each first move, to narrow a mismatch down.
+ * <pre>
+ * java game.Perft &lt;boardFile&gt; &lt;depth&gt; [count|divide|reference] [threads]
+ * </pre>
+ * The exit status is 1 if the reference disagrees.
+ */
+public final class Perft {
+    private static final int MIN_SPLIT_DEPTH = 3; // Smaller subtrees are cheaper to count than to fork
+
+    private Perft() {
+    }
+
+    /** Counts the tree below {@code board} (which is left unchanged) on {@code pool}. */
+    static Counts count(Board board, int depth, ForkJoinPool pool) {
+        return pool.invoke(new CountTask(board.fork(), depth));
+    }
+
+    static void countSequential(Board board, int depth, Counts counts) {
+        if (depth == 0) {
+            counts.leaves++;
+            return;
+        }
+        int mask = board.legalMoveMask();
+        if (mask == 0) {
+            counts.stuck++;
+            return;
+        }
+        for (; mask != 0; mask &= mask - 1) {
+            long undo = board.makeMove(Integer.numberOfTrailingZeros(mask));
+            counts.moves++;
+            countSequential(board, depth - 1, counts);
+            board.undoMove(undo);
+        }
+    }
+
+    private static final class CountTask extends RecursiveTask<Counts> {
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final int depth;
+
+        CountTask(Board board, int depth) {
+            this.board = board;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Counts compute() {
+            Counts counts = new Counts();
+            int mask = depth == 0 ? 0 : board.legalMoveMask();
+            if (depth < MIN_SPLIT_DEPTH || mask == 0) {
+                countSequential(board, depth, counts);
+                return counts;
+            }
+
+            List<CountTask> children = new ArrayList<>(Integer.bitCount(mask));
+            for (; mask != 0; mask &= mask - 1) {
+                Board child = board.fork();
+                child.makeMove(Integer.numberOfTrailingZeros(mask));
+                children.add(new CountTask(child, depth - 1));
+            }
+            counts.moves += children.size();
+            for (CountTask child : ForkJoinTask.invokeAll(children)) {
+                counts.add(child.join());
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * Walks the tree on {@code board} and {@code reference} together, counting
+     * into {@code counts}. Returns a description of the first disagreement, or
+     * null if there is none.
+     */
+    static String compare(Board board, ReferenceBoard reference, int depth, Counts counts, List<Move> path) {
+        int mask = board.legalMoveMask();
+        int listed = 0;
+        for (Move move : board.getPossibleMoves()) {
+            listed |= 1 << move.getDirection();
+        }
+        int expected = reference.legalMoveMask();
+        if (mask != expected || listed != expected) {
+            return "after " + path + ": legalMoveMask " + directions(mask) + ", getPossibleMoves "
+                    + directions(listed) + ", reference " + directions(expected);
+        }
+        if (depth == 0) {
+            counts.leaves++;
+            return null;
+        }
+        if (mask == 0) {
+            counts.stuck++;
+            return null;
+        }
+
+        for (; mask != 0; mask &= mask - 1) {
+            int direction = Integer.numberOfTrailingZeros(mask);
+            path.add(Move.of(direction));
+            long undo = board.makeMove(direction);
+            int step = reference.applyMove(direction);
+            counts.moves++;
+            String mismatch = board.getPlayerRow() != reference.playerRow || board.getPlayerCol() != reference.playerCol
+                    || board.getScore() != reference.visitedCount
+                    ? "after " + path + ": Board is on (" + board.getPlayerRow() + ", " + board.getPlayerCol()
+                    + ") with " + board.getScore() + " cells visited, reference on (" + reference.playerRow + ", "
+                    + reference.playerCol + ") with " + reference.visitedCount
+                    : compare(board, reference, depth - 1, counts, path);
+            if (mismatch != null) return mismatch;
+            board.undoMove(undo);
+            reference.undoMove(direction, step);
+            path.remove(path.size() - 1);
+        }
+        return null;
+    }
+
+    private static String directions(int mask) {
+        List<String> names = new ArrayList<>();
+        for (int m = mask; m != 0; m &= m - 1) {
+            names.add(Move.of(Integer.numberOfTrailingZeros(m)).toString());
+        }
+        return names.toString();
+    }
+
+    /** Leaves at the full depth, sequences stuck before it, and moves made on the way. */
+    static final class Counts {
+        long leaves;
+        long stuck;
+        long moves;
+
+        void add(Counts other) {
+            leaves += other.leaves;
+            stuck += other.stuck;
+            moves += other.moves;
+        }
+
+        @Override
+        public String toString() {
+            return "leaves " + leaves + ", stuck " + stuck + ", moves " + moves;
+        }
+    }
+
+    /**
+     * The movement rules as Board first implemented them: every cell of a jump
+     * is bounds-checked and looked up in a {@code boolean[][]}. Slow on purpose,
+     * so that it shares no tables or bit tricks with {@link Board}.
+     */
+    static final class ReferenceBoard {
+        private static final int[][] DIRECTIONS = {
+                {-1, 0}, {1, 0}, {0, -1}, {0, 1},
+                {-1, -1}, {-1, 1}, {1, -1}, {1, 1}
+        };
+
+        private final int size;
+        private final int[][] grid;
+        private final boolean[][] visited;
+        private int playerRow;
+        private int playerCol;
+        private int visitedCount;
+
+        ReferenceBoard(Tester.BoardData data) {
+            this.size = data.size;
+            this.grid = data.grid.toArray();
+            this.visited = new boolean[size][size];
+            this.playerRow = data.startRow;
+            this.playerCol = data.startCol;
+            this.visitedCount = 1;
+            visited[playerRow][playerCol] = true;
+        }
+
+        int legalMoveMask() {
+            int mask = 0;
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                if (canMoveInDirection(DIRECTIONS[d][0], DIRECTIONS[d][1])) {
+                    mask |= 1 << d;
+                }
+            }
+            return mask;
+        }
+
+        private boolean canMoveInDirection(int dRow, int dCol) {
+            int newRow = playerRow + dRow;
+            int newCol = playerCol + dCol;
+            if (!isInBounds(newRow, newCol) || visited[newRow][newCol]) {
+                return false;
+            }
+
+            int stepSize = grid[newRow][newCol];
+            int targetRow = playerRow + dRow * stepSize;
+            int targetCol = playerCol + dCol * stepSize;
+            if (!isInBounds(targetRow, targetCol) || visited[targetRow][targetCol]) {
+                return false;
+            }
+
+            int tempRow = playerRow, tempCol = playerCol;
+            for (int i = 1; i <= stepSize; i++) {
+                tempRow += dRow;
+                tempCol += dCol;
+                if (!isInBounds(tempRow, tempCol) || visited[tempRow][tempCol]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** Makes a legal move and returns its step size, for {@link #undoMove}. */
+        int applyMove(int direction) {
+            int dRow = DIRECTIONS[direction][0];
+            int dCol = DIRECTIONS[direction][1];
+            int stepSize = grid[playerRow + dRow][playerCol + dCol];
+            for (int i = 1; i <= stepSize; i++) {
+                playerRow += dRow;
+                playerCol += dCol;
+                visited[playerRow][playerCol] = true;
+                visitedCount++;
+            }
+            return stepSize;
+        }
+
+        void undoMove(int direction, int stepSize) {
+            for (int i = 1; i <= stepSize; i++) {
+                visited[playerRow][playerCol] = false;
+                visitedCount--;
+                playerRow -= DIRECTIONS[direction][0];
+                playerCol -= DIRECTIONS[direction][1];
+            }
+        }
+
+        private boolean isInBounds(int row, int col) {
+            return row >= 0 && row < size && col >= 0 && col < size;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java game.Perft <boardFile> <depth> [count|divide|reference] [threads]");
+            return;
+        }
+
+        Tester.BoardData data = Tester.loadBoardData(args[0]);
+        int depth = Integer.parseInt(args[1]);
+        String mode = args.length > 2 ? args[2] : "count";
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        Board board = new Board(data.grid, data.startRow, data.startCol);
+        System.out.printf("Perft of %s (%dx%d) to depth %d on %d threads%n", args[0], data.size, data.size, depth, threads);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long start = System.nanoTime();
+            Counts total;
+            if (mode.equals("divide") && depth > 0) {
+                total = new Counts();
+                total.stuck += board.isGameOver() ? 1 : 0;
+                for (Move move : board.getPossibleMoves()) {
+                    Board child = board.fork();
+                    child.applyMove(move);
+                    Counts below = count(child, depth - 1, pool);
+                    below.moves++;
+                    System.out.printf("  %-2s %,d%n", move, below.leaves);
+                    total.add(below);
+                }
+            } else {
+                total = count(board, depth, pool);
+            }
+            report("Board", total, System.nanoTime() - start);
+
+            if (mode.equals("reference")) {
+                Counts checked = new Counts();
+                start = System.nanoTime();
+                String mismatch = compare(new Board(board), new ReferenceBoard(data), depth, checked, new ArrayList<>());
+                if (mismatch != null) {
+                    System.out.println("❌ Board disagrees with the reference " + mismatch);
+                    System.exit(1);
+                }
+                report("Reference", checked, System.nanoTime() - start);
+                if (checked.leaves != total.leaves || checked.stuck != total.stuck || checked.moves != total.moves) {
+                    System.out.println("❌ Counts differ: Board " + total + ", reference " + checked);
+                    System.exit(1);
+                }
+                System.out.println("✅ Legal moves match the reference at every node");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void report(String name, Counts counts, long nanos) {
+        System.out.printf("%-9s %s in %.3f s (%,.0f moves/s)%n", name + ":", counts, nanos / 1e9,
+                counts.moves / Math.max(nanos / 1e9, 1e-9));
+    }
+}
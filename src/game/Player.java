@@ -1,10 +1,14 @@
 package game;
 
 public abstract class Player {
-    protected Board board;
+    protected BoardView board; // 📍 Live and read-only: it follows the game; fork() it to try moves
+    Board game;                // The referee's board behind the view
+    Board mirror;              // Private copy a legacy Player(Board) plays on, or null
 
-    public Player(Board board) {
-        this.board = board;
+    /** Pass on the view the referee hands your constructor. */
+    public Player(BoardView board) {
+        this.game = Board.behind(board);
+        this.board = game.view();
     }
 
     /**
@@ -13,4 +17,11 @@ public abstract class Player {
      *  🚀 This method will now be wrapped with a timeout in Referee.java
      */
     public abstract Move nextMove();
+
+    // Called by the referee once it has applied move, while nextMove() is not running
+    void moveApplied(Move move) {
+        if (mirror != null) {
+            mirror.applyMove(move);
+        }
+    }
 }
@@ -0,0 +1,49 @@
+package game;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Loads the {@code players} package in isolation so that each student's classes,
+ * including their static state, are private to one tournament entry. Everything
+ * else (the {@code game} API, the JDK) is shared through the parent loader.
+ */
+class PlayerClassLoader extends ClassLoader {
+    private static final String PLAYERS_PACKAGE = "players.";
+
+    PlayerClassLoader(ClassLoader parent) {
+        super(parent);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!name.startsWith(PLAYERS_PACKAGE)) {
+            return super.loadClass(name, resolve);
+        }
+
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loaded = findLoadedClass(name);
+            if (loaded == null) {
+                loaded = findClass(name);
+            }
+            if (resolve) {
+                resolveClass(loaded);
+            }
+            return loaded;
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        String resource = name.replace('.', '/') + ".class";
+        try (InputStream in = getParent().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new ClassNotFoundException(name);
+            }
+            byte[] bytes = in.readAllBytes();
+            return defineClass(name, bytes, 0, bytes.length);
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+    }
+}
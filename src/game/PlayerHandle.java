@@ -0,0 +1,35 @@
+package game;
+
+/**
+ * What {@link Referee} needs from wherever a player runs: ask for a move under a
+ * budget, then read the move and what it cost. {@link PlayerWorker} runs the
+ * player on a thread of this JVM, {@link PlayerProcess} in a child JVM.
+ */
+interface PlayerHandle {
+    enum Outcome { MOVED, TIMEOUT, ERROR }
+
+    /** Asks for the next move and waits until it arrives or the budget runs out. */
+    Outcome requestMove(MoveBudget budget) throws InterruptedException;
+
+    /** Tells the player the referee applied its last move; see {@link Player#moveApplied}. */
+    default void moveApplied(Move move) {
+    }
+
+    /** The last move, or null if the player returned none. */
+    Move getMove();
+
+    Throwable getError();
+
+    /** CPU time of the last move (wall time if it cannot be measured). */
+    long getCpuNanos();
+
+    long getWallNanos();
+
+    /** Bytes the player's thread allocated during the last move, or 0 if unknown. */
+    long getAllocatedBytes();
+
+    /** Collections that finished during the last move, and their accumulated time. */
+    long getGcCount();
+
+    long getGcMillis();
+}
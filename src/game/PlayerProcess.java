@@ -0,0 +1,363 @@
+package game;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A student's player running in a long-lived child JVM ({@link PlayerProcessMain}),
+ * reused for every board that student plays. The child loads
+ * {@code players.Player<ID>} once, so only the first game pays for JVM startup
+ * and every later one runs on warm JIT-compiled code, while a crash, a
+ * {@code System.exit} or a runaway thread stays outside the grader's JVM.
+ * <p>
+ * The pipe protocol is binary and big-endian: a one-byte message type, then its
+ * fields.
+ * <ul>
+ *   <li>Parent to child: {@code NEW_GAME size startRow startCol cells[size²]},
+ *       {@code MOVE}, {@code QUIT}.</li>
+ *   <li>Child to parent: {@code READY}, {@code FAILED message},
+ *       {@code MOVED hasMove dRow dCol cpuNanos allocatedBytes gcCount gcMillis},
+ *       and {@code ERROR message} followed by the same four counters.</li>
+ * </ul>
+ * The child applies its own legal moves to a mirror board, so only the request
+ * crosses the pipe for each move.
+ * <p>
+ * Wall-clock limits are enforced here and the CPU budget is checked against the
+ * time the child reports. A child that misses a deadline, dies or is
+ * interrupted is killed, and the next game starts a fresh one.
+ * {@code stuck.*} system properties are passed on to the child, and
+ * {@code -Dstuck.workerJvmArgs="..."} adds JVM options (e.g. {@code -Xmx256m}).
+ */
+final class PlayerProcess implements PlayerHandle, AutoCloseable {
+    static final int NEW_GAME = 1, MOVE = 2, QUIT = 3;
+    static final int READY = 1, FAILED = 2, MOVED = 3, ERROR = 4;
+
+    private static final long STARTUP_TIMEOUT_MILLIS = 10_000; // JVM start plus class loading
+    private static final Reply DIED = new Reply(-1);
+
+    private final String studentID;
+    private Process process;
+    private DataOutputStream out;
+    private BlockingQueue<Reply> replies;
+    private int spawns;
+    private String failure; // Why the player cannot play at all (e.g. no such class), or null
+    private String lastExit = "never started"; // How the previous child ended
+    private boolean lostWorker;                 // The child died or was killed during the current game
+
+    // The last move
+    private Move move;
+    private Throwable error;
+    private long cpuNanos;
+    private long wallNanos;
+    private long allocatedBytes;
+    private long gcCount;
+    private long gcMillis;
+
+    PlayerProcess(String studentID) {
+        this.studentID = studentID;
+    }
+
+    /**
+     * Sends a new board (no moves made yet), starting the child first if none
+     * is running, and waits for the player's constructor. Returns false if the
+     * player could not be set up for this game; the reason has already been
+     * reported.
+     */
+    boolean startGame(Board board) throws InterruptedException {
+        if (board.getStepCount() != 0) {
+            throw new IllegalArgumentException("Worker games start from a fresh board");
+        }
+        lostWorker = false;
+        if (failure != null) return false;
+        if (process == null && !spawn()) return false;
+
+        int size = board.getSize();
+        try {
+            out.writeByte(NEW_GAME);
+            out.writeInt(size);
+            out.writeInt(board.getPlayerRow());
+            out.writeInt(board.getPlayerCol());
+            byte[] row = new byte[size];
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    row[c] = (byte) board.getCellValue(r, c);
+                }
+                out.write(row);
+            }
+            out.flush();
+        } catch (IOException e) {
+            kill();
+            System.err.println("❌ Worker for Player " + studentID + " is gone: " + e.getMessage());
+            return false;
+        }
+
+        Reply reply = await(TimeUnit.SECONDS.toMillis(Referee.INIT_TIMEOUT_SECONDS));
+        if (reply == null) {
+            System.err.println("⏳ Timeout: Player " + studentID + " took too long to initialize!");
+            kill();
+            return false;
+        }
+        if (reply.type != READY) {
+            System.err.println("❌ Error initializing player " + studentID + ": " + describe(reply));
+            if (reply.type != FAILED) kill();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean spawn() throws InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        for (String arg : System.getProperty("stuck.workerJvmArgs", "").trim().split("\\s+")) {
+            if (!arg.isEmpty()) command.add(arg);
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("stuck.") || name.equals("file.encoding")) {
+                command.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(PlayerProcessMain.class.getName());
+        command.add(studentID);
+
+        try {
+            process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        } catch (IOException e) {
+            failure = e.getMessage();
+            System.err.println("❌ Cannot start a worker JVM for Player " + studentID + ": " + failure);
+            return false;
+        }
+        out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+        replies = new LinkedBlockingQueue<>();
+        Thread reader = new Thread(new ReplyReader(process.getInputStream(), replies), "Player" + studentID + "-pipe");
+        reader.setDaemon(true);
+        reader.start();
+        if (spawns++ > 0) {
+            System.err.println("🔁 Restarted the worker JVM for Player " + studentID + " (" + spawns + " starts)");
+        }
+
+        Reply hello = await(STARTUP_TIMEOUT_MILLIS);
+        if (hello == null || hello.type != READY) {
+            if (hello != null && hello.type == FAILED) {
+                failure = hello.message; // The class is missing or broken: every game would fail the same way
+            }
+            System.err.println("❌ Error initializing player " + studentID + ": "
+                    + (hello == null ? "worker JVM did not start in time" : describe(hello)));
+            kill();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public Outcome requestMove(MoveBudget budget) throws InterruptedException {
+        move = null;
+        error = null;
+        long start = System.nanoTime();
+        try {
+            out.writeByte(MOVE);
+            out.flush();
+        } catch (IOException e) {
+            return died(start);
+        }
+
+        Reply reply;
+        try {
+            reply = await(TimeUnit.NANOSECONDS.toMillis(budget.getWallNanos()) + 1);
+        } catch (InterruptedException e) {
+            kill(); // Mid-move: the child's state no longer matches any game
+            throw e;
+        }
+        wallNanos = System.nanoTime() - start;
+        if (reply == null) {
+            cpuNanos = wallNanos;
+            allocatedBytes = gcCount = gcMillis = 0;
+            kill();
+            return Outcome.TIMEOUT;
+        }
+        if (reply == DIED) {
+            return died(start);
+        }
+
+        cpuNanos = reply.cpuNanos;
+        allocatedBytes = reply.allocatedBytes;
+        gcCount = reply.gcCount;
+        gcMillis = reply.gcMillis;
+        if (reply.type == ERROR) {
+            error = new RemoteError(reply.message);
+            return Outcome.ERROR;
+        }
+        move = reply.move;
+        boolean overCpu = budget.hasCpuBudget() && cpuNanos > budget.getCpuNanos();
+        boolean overWall = wallNanos > budget.getWallNanos();
+        if (overCpu || overWall) {
+            kill(); // Its mirror board already has the move the referee is about to ignore
+            return Outcome.TIMEOUT;
+        }
+        return Outcome.MOVED;
+    }
+
+    /** Whether the worker JVM died or was killed during the game since the last {@link #startGame}. */
+    boolean lostWorker() {
+        return lostWorker;
+    }
+
+    private Outcome died(long start) {
+        lostWorker = true;
+        wallNanos = cpuNanos = System.nanoTime() - start;
+        allocatedBytes = gcCount = gcMillis = 0;
+        error = new RemoteError("worker JVM exited" + (process != null && !process.isAlive()
+                ? " with status " + process.exitValue() : ""));
+        kill();
+        return Outcome.ERROR;
+    }
+
+    private Reply await(long timeoutMillis) throws InterruptedException {
+        return replies.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static String describe(Reply reply) {
+        return reply == DIED ? "worker JVM exited" : reply.message;
+    }
+
+    private void kill() {
+        if (process != null) {
+            lastExit = process.isAlive() ? "killed" : "exited with status " + process.exitValue();
+            process.destroyForcibly();
+            process = null;
+        }
+    }
+
+    @Override
+    public Move getMove() {
+        return move;
+    }
+
+    @Override
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    @Override
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    @Override
+    public long getGcMillis() {
+        return gcMillis;
+    }
+
+    /** The worker JVM's state for error reports, e.g. "worker JVM exited with status 1". */
+    String workerStatus() {
+        if (process == null) return "worker JVM " + lastExit;
+        return process.isAlive() ? "worker JVM running" : "worker JVM exited with status " + process.exitValue();
+    }
+
+    /** Asks the child to exit, and kills it if it does not within a second. */
+    @Override
+    public void close() {
+        if (process == null) return;
+        try {
+            out.writeByte(QUIT);
+            out.flush();
+            if (!process.waitFor(1, TimeUnit.SECONDS)) {
+                kill();
+            } else {
+                lastExit = "exited with status " + process.exitValue();
+            }
+        } catch (IOException e) {
+            kill();
+        } catch (InterruptedException e) {
+            kill();
+            Thread.currentThread().interrupt();
+        }
+        process = null;
+    }
+
+    /** An exception thrown inside the child, as the child described it. */
+    static final class RemoteError extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        RemoteError(String message) {
+            super(message);
+        }
+
+        @Override
+        public String toString() {
+            return getMessage();
+        }
+    }
+
+    private static final class Reply {
+        final int type;
+        String message;
+        Move move;
+        long cpuNanos;
+        long allocatedBytes;
+        long gcCount;
+        long gcMillis;
+
+        Reply(int type) {
+            this.type = type;
+        }
+    }
+
+    /** Turns the child's stdout into replies; {@link #DIED} once the pipe closes. */
+    private static final class ReplyReader implements Runnable {
+        private final DataInputStream in;
+        private final BlockingQueue<Reply> replies;
+
+        ReplyReader(InputStream in, BlockingQueue<Reply> replies) {
+            this.in = new DataInputStream(new BufferedInputStream(in));
+            this.replies = replies;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    Reply reply = new Reply(in.readUnsignedByte());
+                    if (reply.type == FAILED || reply.type == ERROR) {
+                        reply.message = in.readUTF();
+                    }
+                    if (reply.type == MOVED && in.readBoolean()) {
+                        int dRow = in.readInt();
+                        int dCol = in.readInt();
+                        int direction = Move.directionOf(dRow, dCol);
+                        reply.move = direction >= 0 ? Move.of(direction) : new Move(dRow, dCol);
+                    }
+                    if (reply.type == MOVED || reply.type == ERROR) {
+                        reply.cpuNanos = in.readLong();
+                        reply.allocatedBytes = in.readLong();
+                        reply.gcCount = in.readLong();
+                        reply.gcMillis = in.readLong();
+                    }
+                    replies.add(reply);
+                }
+            } catch (IOException e) {
+                replies.add(DIED);
+            }
+        }
+    }
+}
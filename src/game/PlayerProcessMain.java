@@ -0,0 +1,124 @@
+package game;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Entry point of a player worker JVM started by {@link PlayerProcess}: loads
+ * {@code players.Player<ID>} once, then plays the boards it is sent over stdin,
+ * answering on stdout. The protocol is described in {@link PlayerProcess}.
+ * Anything the player prints goes to stderr, so it cannot corrupt the replies.
+ */
+public class PlayerProcessMain {
+    private static final com.sun.management.OperatingSystemMXBean OS = processCpuBean();
+
+    public static void main(String[] args) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+        System.setOut(System.err);
+
+        Class<?> playerClass;
+        try {
+            playerClass = Class.forName("players.Player" + args[0]);
+            out.writeByte(PlayerProcess.READY);
+        } catch (Throwable t) {
+            out.writeByte(PlayerProcess.FAILED);
+            out.writeUTF(String.valueOf(t));
+            out.flush();
+            return;
+        }
+        out.flush();
+
+        Board board = null;
+        Player player = null;
+        while (true) {
+            int type;
+            try {
+                type = in.readUnsignedByte();
+            } catch (EOFException e) {
+                return; // Parent is gone
+            }
+
+            if (type == PlayerProcess.NEW_GAME) {
+                int size = in.readInt();
+                int startRow = in.readInt();
+                int startCol = in.readInt();
+                PackedGrid.Builder grid = new PackedGrid.Builder(size);
+                byte[] row = new byte[size];
+                for (int r = 0; r < size; r++) {
+                    in.readFully(row);
+                    for (int c = 0; c < size; c++) {
+                        grid.set(r, c, row[c]);
+                    }
+                }
+                board = new Board(grid.build(), startRow, startCol);
+                try {
+                    player = Referee.newPlayer(playerClass, board);
+                    out.writeByte(PlayerProcess.READY);
+                } catch (Throwable t) {
+                    player = null;
+                    out.writeByte(PlayerProcess.FAILED);
+                    out.writeUTF(String.valueOf(t instanceof java.lang.reflect.InvocationTargetException ? t.getCause() : t));
+                }
+            } else if (type == PlayerProcess.MOVE) {
+                playMove(player, board, out);
+            } else {
+                return; // QUIT, or a parent we do not understand
+            }
+            out.flush();
+        }
+    }
+
+    private static com.sun.management.OperatingSystemMXBean processCpuBean() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean) {
+            com.sun.management.OperatingSystemMXBean bean =
+                    (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+            if (bean.getProcessCpuTime() >= 0) {
+                return bean;
+            }
+        }
+        return null;
+    }
+
+    // CPU of this whole JVM, which only runs the player: threads it fans out to are charged too
+    private static long cpuTime() {
+        if (OS != null) return OS.getProcessCpuTime();
+        return PlayerWorker.CPU_TIME ? PlayerWorker.THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    private static void playMove(Player player, Board board, DataOutputStream out) throws IOException {
+        long gcCount = PlayerWorker.totalGcCount();
+        long gcMillis = PlayerWorker.totalGcMillis();
+        long allocated = PlayerWorker.ALLOCATION != null ? PlayerWorker.ALLOCATION.getCurrentThreadAllocatedBytes() : 0;
+        long cpuStart = cpuTime();
+        Move move = null;
+        Throwable error = null;
+        try {
+            if (player == null) throw new IllegalStateException("No game in progress");
+            move = player.nextMove();
+        } catch (Throwable t) {
+            error = t;
+        }
+        long cpuNanos = cpuTime() - cpuStart;
+        allocated = PlayerWorker.ALLOCATION != null ? PlayerWorker.ALLOCATION.getCurrentThreadAllocatedBytes() - allocated : 0;
+
+        if (error != null) {
+            out.writeByte(PlayerProcess.ERROR);
+            out.writeUTF(String.valueOf(error));
+        } else {
+            out.writeByte(PlayerProcess.MOVED);
+            out.writeBoolean(move != null);
+            if (move != null) {
+                out.writeInt(move.getDRow());
+                out.writeInt(move.getDCol());
+                if (board.applyMove(move)) { // Keep the mirror in step; the referee rejects illegal moves itself
+                    player.moveApplied(move);
+                }
+            }
+        }
+        out.writeLong(cpuNanos);
+        out.writeLong(allocated);
+        out.writeLong(PlayerWorker.totalGcCount() - gcCount);
+        out.writeLong(PlayerWorker.totalGcMillis() - gcMillis);
+    }
+}
@@ -0,0 +1,220 @@
+package game;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One long-lived thread that runs a player's {@code nextMove()} calls for a whole
+ * game, so each move costs two semaphore hand-offs instead of a new Future.
+ * Each move is timed in wall-clock and thread CPU nanoseconds, and the caller
+ * enforces a {@link MoveBudget} on either. Only this thread's CPU is counted,
+ * not that of threads the player hands work to; see {@link MoveBudget}. The bytes the thread allocated and
+ * the collections that ran during the move are recorded alongside, for
+ * {@link MoveMetrics}.
+ */
+final class PlayerWorker implements PlayerHandle, AutoCloseable {
+    static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    static final boolean CPU_TIME = THREADS.isThreadCpuTimeSupported() && enableCpuTime();
+    static final com.sun.management.ThreadMXBean ALLOCATION = allocationBean();
+    private static final List<GarbageCollectorMXBean> COLLECTORS = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private final Player player;
+    private final Thread thread;
+    private final Semaphore request = new Semaphore(0);
+    private final Semaphore done = new Semaphore(0);
+    private volatile boolean closed;
+
+    // Written by the worker before releasing 'done', read by the caller after acquiring it
+    private Move move;
+    private Throwable error;
+    private long workerCpuNanos;
+    private long workerWallNanos;
+    private long workerAllocatedBytes;
+    private long workerGcCount;
+    private long workerGcMillis;
+
+    // Written by the worker as a move starts; read by the caller only when it gives up on the move
+    private volatile long allocatedAtStart;
+    private volatile long gcCountAtStart;
+    private volatile long gcMillisAtStart;
+
+    // Caller-side view of the last move, including moves that timed out
+    private long cpuNanos;
+    private long wallNanos;
+    private long allocatedBytes;
+    private long gcCount;
+    private long gcMillis;
+
+    PlayerWorker(Player player, String name) {
+        this.player = player;
+        this.thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static boolean enableCpuTime() {
+        try {
+            if (!THREADS.isThreadCpuTimeEnabled()) {
+                THREADS.setThreadCpuTimeEnabled(true);
+            }
+            return true;
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return false;
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) THREADS;
+            if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                return bean;
+            }
+        }
+        return null;
+    }
+
+    static long totalGcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : COLLECTORS) {
+            total += Math.max(0, collector.getCollectionCount());
+        }
+        return total;
+    }
+
+    static long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : COLLECTORS) {
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+
+    private void run() {
+        while (true) {
+            try {
+                request.acquire();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (closed) return;
+
+            long gcCountStart = totalGcCount();
+            long gcMillisStart = totalGcMillis();
+            long allocatedStart = ALLOCATION != null ? ALLOCATION.getCurrentThreadAllocatedBytes() : 0;
+            gcCountAtStart = gcCountStart;
+            gcMillisAtStart = gcMillisStart;
+            allocatedAtStart = allocatedStart;
+            long cpuStart = CPU_TIME ? THREADS.getCurrentThreadCpuTime() : 0;
+            long wallStart = System.nanoTime();
+            try {
+                move = player.nextMove();
+                error = null;
+            } catch (Throwable t) {
+                move = null;
+                error = t;
+            }
+            workerWallNanos = System.nanoTime() - wallStart;
+            workerCpuNanos = CPU_TIME ? THREADS.getCurrentThreadCpuTime() - cpuStart : workerWallNanos;
+            workerAllocatedBytes = ALLOCATION != null ? ALLOCATION.getCurrentThreadAllocatedBytes() - allocatedStart : 0;
+            workerGcCount = totalGcCount() - gcCountStart;
+            workerGcMillis = totalGcMillis() - gcMillisStart;
+            done.release();
+        }
+    }
+
+    /** After a timeout the worker is abandoned: it is interrupted and never reused. */
+    @Override
+    public Outcome requestMove(MoveBudget budget) throws InterruptedException {
+        boolean cpuBudget = budget.hasCpuBudget() && CPU_TIME;
+        long cpuBase = cpuBudget ? THREADS.getThreadCpuTime(thread.getId()) : 0; // Worker is parked, so this is stable
+        long start = System.nanoTime();
+        request.release();
+
+        // Wake up when the remaining CPU budget could at the earliest be used up
+        long checkpoint = cpuBudget ? Math.min(budget.getCpuNanos(), budget.getWallNanos()) : budget.getWallNanos();
+        while (!done.tryAcquire(checkpoint, TimeUnit.NANOSECONDS)) {
+            long elapsed = System.nanoTime() - start;
+            long remaining = budget.getWallNanos() - elapsed;
+            if (cpuBudget) {
+                long used = THREADS.getThreadCpuTime(thread.getId()) - cpuBase;
+                remaining = Math.min(remaining, budget.getCpuNanos() - used);
+            }
+            if (remaining <= 0) {
+                wallNanos = elapsed;
+                cpuNanos = cpuBudget ? THREADS.getThreadCpuTime(thread.getId()) - cpuBase : elapsed;
+                allocatedBytes = ALLOCATION != null ? Math.max(0, ALLOCATION.getThreadAllocatedBytes(thread.getId()) - allocatedAtStart) : 0;
+                gcCount = totalGcCount() - gcCountAtStart;
+                gcMillis = totalGcMillis() - gcMillisAtStart;
+                abandon();
+                return Outcome.TIMEOUT;
+            }
+            checkpoint = remaining;
+        }
+
+        wallNanos = workerWallNanos;
+        cpuNanos = workerCpuNanos;
+        allocatedBytes = workerAllocatedBytes;
+        gcCount = workerGcCount;
+        gcMillis = workerGcMillis;
+        if (error != null) return Outcome.ERROR;
+        boolean overCpu = cpuBudget && cpuNanos > budget.getCpuNanos();
+        boolean overWall = wallNanos > budget.getWallNanos();
+        return overCpu || overWall ? Outcome.TIMEOUT : Outcome.MOVED;
+    }
+
+    @Override
+    public void moveApplied(Move move) {
+        player.moveApplied(move);
+    }
+
+    @Override
+    public Move getMove() {
+        return move;
+    }
+
+    @Override
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    @Override
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    @Override
+    public long getGcMillis() {
+        return gcMillis;
+    }
+
+    private void abandon() {
+        closed = true;
+        thread.interrupt();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        request.release();
+        thread.interrupt();
+    }
+}
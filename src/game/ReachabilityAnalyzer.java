@@ -0,0 +1,405 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * What is still possible from a board's current position, for pruning searches
+ * and for player heuristics:
+ * <ul>
+ *   <li>which jumps are still open (no visited cell on their path),</li>
+ *   <li>the cells the player can still land on, and the strongly connected
+ *       components of the open jumps between them,</li>
+ *   <li>dead cells: unvisited cells no future move can visit,</li>
+ *   <li>a lower bound on the moves left before getting stuck (see
+ *       {@link #lowerBound(int)}) and an upper bound that holds for every line
+ *       ({@link #maxMovesLeft()}).</li>
+ * </ul>
+ * Visiting a cell only ever closes jumps, so everything here shrinks as the
+ * game goes on. The analyzer follows one {@link Board}: call {@link #push()}
+ * after each move made on it and {@link #pop()} after each undo. A push closes
+ * just the jumps crossing the cells the move visited and records them, and a
+ * pop reopens them, so a search pays per move rather than per position.
+ * Components and dead cells are computed on demand, at most once per position.
+ * <p>
+ * Needs the board's {@link JumpGraph}; building the analyzer costs one pass
+ * over every jump, like the first {@link Board#outDegree} call.
+ */
+public final class ReachabilityAnalyzer {
+    private final Board board;
+    private final JumpGraph graph;
+    private final int size;
+    private final byte[] open;           // [cell]: directions whose jump is open, in step with the board
+    private int[] closed = new int[256]; // cell * 8 + d of each jump closed by a pushed move, oldest first
+    private int closedCount;
+    private int[] frameClosed = new int[64]; // closedCount before each pushed move
+    private int[] framePlayer = new int[64]; // player cell at each depth
+    private int depth;
+    private int baseStep;
+
+    // BFS scratch for lowerBound(); marks are cleared again after each search
+    private long[] seen;
+    private int[] queue = new int[64];
+
+    // Full analysis of the current position, valid while analyzed is set; arrays are allocated on first use
+    private boolean analyzed;
+    private int[] index;            // Tarjan discovery index, or -1
+    private int[] low;
+    private int[] component;        // Component id, or -1 when the cell cannot be reached
+    private int[] order;            // Reachable cells in discovery order
+    private int[] calls;            // Tarjan's call stack, and the directions each call has left to try
+    private int[] pending;
+    private int[] stack;            // Tarjan's component stack
+    private int reachableCount;
+    private int[] componentSize = new int[16];
+    private int[] longest = new int[16]; // Most cells a line can land on from the component on
+    private int componentCount;
+    private long[] live;            // Cells on some open jump from a reachable cell
+    private int liveCount;
+
+    public ReachabilityAnalyzer(Board board) {
+        this(board, board.getJumpGraph(), new byte[board.getSize() * board.getSize()]);
+        reset();
+    }
+
+    private ReachabilityAnalyzer(Board board, JumpGraph graph, byte[] open) {
+        this.board = board;
+        this.graph = graph;
+        this.size = board.getSize();
+        this.open = open;
+        this.seen = new long[(open.length + 63) >>> 6];
+        this.baseStep = board.getStepCount();
+        this.framePlayer[0] = playerCell();
+    }
+
+    /**
+     * An analyzer for {@code copy}, a copy or fork of this analyzer's board at
+     * the same position. Costs one byte per cell instead of a pass over every jump.
+     */
+    public ReachabilityAnalyzer copyFor(Board copy) {
+        checkInStep();
+        if (copy.getStepCount() != board.getStepCount() || copy.getPlayerRow() != board.getPlayerRow()
+                || copy.getPlayerCol() != board.getPlayerCol() || copy.getZobristKey() != board.getZobristKey()) {
+            throw new IllegalArgumentException("copyFor() needs a board at the same position");
+        }
+        return new ReachabilityAnalyzer(copy, graph, open.clone());
+    }
+
+    /** Rebuilds everything for the board's current position, forgetting pushed moves. */
+    public void reset() {
+        for (int cell = 0; cell < open.length; cell++) {
+            int mask = 0;
+            for (int m = graph.staticMask(cell); m != 0; m &= m - 1) {
+                int d = Integer.numberOfTrailingZeros(m);
+                if (pathIsFree(cell, d)) mask |= 1 << d;
+            }
+            open[cell] = (byte) mask;
+        }
+        closedCount = 0;
+        depth = 0;
+        baseStep = board.getStepCount();
+        framePlayer[0] = playerCell();
+        analyzed = false;
+    }
+
+    private boolean pathIsFree(int cell, int d) {
+        int row = cell / size, col = cell % size;
+        for (int k = graph.step(cell, d); k > 0; k--) {
+            row += Board.D_ROW[d];
+            col += Board.D_COL[d];
+            if (board.isVisited(row, col)) return false;
+        }
+        return true;
+    }
+
+    /** Takes in the move just made on the board. */
+    public void push() {
+        if (board.getStepCount() != baseStep + depth + 1) {
+            throw new IllegalStateException("push() must follow exactly one move on the board");
+        }
+        if (depth + 1 == framePlayer.length) {
+            framePlayer = Arrays.copyOf(framePlayer, framePlayer.length * 2);
+            frameClosed = Arrays.copyOf(frameClosed, frameClosed.length * 2);
+        }
+        frameClosed[depth] = closedCount;
+        int from = framePlayer[depth];
+        int to = playerCell();
+        framePlayer[++depth] = to;
+
+        int dRow = Integer.signum(to / size - from / size);
+        int dCol = Integer.signum(to % size - from % size);
+        for (int row = from / size + dRow, col = from % size + dCol; ; row += dRow, col += dCol) {
+            closeJumpsThrough(row, col);
+            if (row * size + col == to) break;
+        }
+        analyzed = false;
+    }
+
+    /** Takes back the last pushed move, which has just been undone on the board. */
+    public void pop() {
+        if (depth == 0 || board.getStepCount() != baseStep + depth - 1) {
+            throw new IllegalStateException("pop() must follow the undo of a pushed move");
+        }
+        depth--;
+        for (int i = frameClosed[depth]; i < closedCount; i++) {
+            int e = closed[i];
+            open[e >>> 3] |= (byte) (1 << (e & 7));
+        }
+        closedCount = frameClosed[depth];
+        analyzed = false;
+    }
+
+    // Closes every open jump whose path crosses (row, col); see Board.updateJumpsThrough
+    private void closeJumpsThrough(int row, int col) {
+        int maxStep = graph.maxStep();
+        for (int d = 0; d < 8; d++) {
+            int reach = maxStep;
+            if (Board.D_ROW[d] != 0) reach = Math.min(reach, Board.D_ROW[d] > 0 ? row : size - 1 - row);
+            if (Board.D_COL[d] != 0) reach = Math.min(reach, Board.D_COL[d] > 0 ? col : size - 1 - col);
+            int back = Board.D_ROW[d] * size + Board.D_COL[d];
+            int cell = row * size + col;
+            for (int k = 1; k <= reach; k++) {
+                cell -= back;
+                if ((open[cell] & (1 << d)) == 0 || graph.step(cell, d) < k) continue;
+                open[cell] &= (byte) ~(1 << d);
+                if (closedCount == closed.length) {
+                    closed = Arrays.copyOf(closed, closed.length * 2);
+                }
+                closed[closedCount++] = cell * 8 + d;
+            }
+        }
+    }
+
+    private void checkInStep() {
+        if (board.getStepCount() != baseStep + depth || playerCell() != framePlayer[depth]) {
+            throw new IllegalStateException("The board has moved without push()/pop(); call reset()");
+        }
+    }
+
+    private int playerCell() {
+        return board.getPlayerRow() * size + board.getPlayerCol();
+    }
+
+    /** Directions whose jump from {@code (row, col)} has no visited cell on its path. */
+    public int openDirections(int row, int col) {
+        checkInStep();
+        return open[row * size + col] & 0xFF;
+    }
+
+    /** {@link #lowerBound(int)} without a cap. */
+    public int lowerBound() {
+        return lowerBound(Integer.MAX_VALUE - 1);
+    }
+
+    /**
+     * A proven lower bound on the moves left before the player is stuck, or
+     * {@code limit + 1} if it exceeds {@code limit}. It rests on two facts:
+     * <ul>
+     *   <li>The game can only end on a cell reachable by jumps that are open
+     *       now, and not sooner than its jump distance.</li>
+     *   <li>Ending on cell {@code e} needs every open direction of {@code e}
+     *       blocked. The last move blocks at most one of them. Any earlier move
+     *       is a straight segment that misses {@code e}, so it crosses at most
+     *       three of the eight rays from {@code e}.</li>
+     * </ul>
+     * The search stops at distance {@code limit}, so testing a small cap
+     * (e.g. the depth left in a search) costs far less than the full bound.
+     */
+    public int lowerBound(int limit) {
+        checkInStep();
+        int start = framePlayer[depth];
+        if (open[start] == 0) return 0;
+
+        int head = 0, tail = 0, levelEnd = 1, d = 0;
+        seen[start >>> 6] |= 1L << start;
+        queue[tail++] = start;
+        int best = Integer.MAX_VALUE;
+        while (head < tail) {
+            if (head == levelEnd) {
+                d++;
+                levelEnd = tail;
+            }
+            if (d >= best || d > limit) break; // BFS order: nothing later can do better
+            int cell = queue[head++];
+            int exits = open[cell] & 0xFF;
+            if (cell != start) {
+                int blocking = 1 + (Math.max(0, Integer.bitCount(exits) - 1) + 2) / 3;
+                best = Math.min(best, Math.max(d, blocking));
+            }
+            if (tail + 8 > queue.length) {
+                queue = Arrays.copyOf(queue, queue.length * 2);
+            }
+            for (int m = exits; m != 0; m &= m - 1) {
+                int target = graph.target(cell, Integer.numberOfTrailingZeros(m));
+                if ((seen[target >>> 6] & (1L << target)) == 0) {
+                    seen[target >>> 6] |= 1L << target;
+                    queue[tail++] = target;
+                }
+            }
+        }
+        for (int i = 0; i < tail; i++) {
+            seen[queue[i] >>> 6] = 0;
+        }
+        return Math.min(best, limit + 1);
+    }
+
+    /** Whether the player can still land on {@code (row, col)} (the cell it stands on counts). */
+    public boolean isReachable(int row, int col) {
+        analyze();
+        return component[row * size + col] >= 0;
+    }
+
+    public int getReachableCount() {
+        analyze();
+        return reachableCount;
+    }
+
+    /**
+     * Strongly connected component of {@code (row, col)} among reachable cells,
+     * or -1 if it cannot be reached. Components are numbered so that every open
+     * jump between two of them goes to the lower id; the player's own cell,
+     * which no jump can land on again, is always the last one.
+     */
+    public int componentOf(int row, int col) {
+        analyze();
+        return component[row * size + col];
+    }
+
+    public int getComponentCount() {
+        analyze();
+        return componentCount;
+    }
+
+    public int getComponentSize(int id) {
+        analyze();
+        return componentSize[id];
+    }
+
+    /** Whether {@code (row, col)} is unvisited but no future move can visit it. */
+    public boolean isDead(int row, int col) {
+        analyze();
+        int cell = row * size + col;
+        return !board.isVisited(row, col) && (live[cell >>> 6] & (1L << cell)) == 0;
+    }
+
+    public int getDeadCount() {
+        analyze();
+        return size * size - board.getScore() - liveCount;
+    }
+
+    /**
+     * An upper bound on the moves any line can still make: each move lands on a
+     * new cell, and a line passes through the components in id order, landing
+     * on at most every cell of each. If this is within a search's remaining
+     * depth, the player is trapped: every continuation gets stuck in time.
+     */
+    public int maxMovesLeft() {
+        analyze();
+        return longest[component[framePlayer[depth]]] - 1;
+    }
+
+    private void analyze() {
+        checkInStep();
+        if (analyzed) return;
+        if (index == null) {
+            int cells = open.length;
+            index = new int[cells];
+            low = new int[cells];
+            component = new int[cells];
+            order = new int[cells];
+            calls = new int[cells];
+            pending = new int[cells];
+            stack = new int[cells];
+            live = new long[seen.length];
+            Arrays.fill(index, -1);
+            Arrays.fill(component, -1);
+        }
+        for (int i = 0; i < reachableCount; i++) {
+            index[order[i]] = -1;
+            component[order[i]] = -1;
+        }
+        reachableCount = 0;
+        componentCount = 0;
+        tarjan(framePlayer[depth]);
+
+        Arrays.fill(live, 0);
+        liveCount = 0;
+        for (int i = 0; i < reachableCount; i++) {
+            int cell = order[i];
+            for (int m = open[cell] & 0xFF; m != 0; m &= m - 1) {
+                int d = Integer.numberOfTrailingZeros(m);
+                int delta = Board.D_ROW[d] * size + Board.D_COL[d];
+                int on = cell;
+                for (int k = graph.step(cell, d); k > 0; k--) {
+                    on += delta;
+                    if ((live[on >>> 6] & (1L << on)) == 0) {
+                        live[on >>> 6] |= 1L << on;
+                        liveCount++;
+                    }
+                }
+            }
+        }
+        analyzed = true;
+    }
+
+    // Iterative Tarjan from the player's cell
+    private void tarjan(int root) {
+        int top = 0, stackSize = 0, counter = 0;
+
+        index[root] = low[root] = counter++;
+        order[reachableCount++] = root;
+        stack[stackSize++] = root;
+        calls[0] = root;
+        pending[0] = open[root] & 0xFF;
+        while (top >= 0) {
+            int v = calls[top];
+            int m = pending[top];
+            if (m != 0) {
+                pending[top] = m & (m - 1);
+                int w = graph.target(v, Integer.numberOfTrailingZeros(m));
+                if (index[w] < 0) {
+                    index[w] = low[w] = counter++;
+                    order[reachableCount++] = w;
+                    stack[stackSize++] = w;
+                    calls[++top] = w;
+                    pending[top] = open[w] & 0xFF;
+                } else if (component[w] < 0) { // Still on the component stack
+                    low[v] = Math.min(low[v], index[w]);
+                }
+                continue;
+            }
+
+            top--;
+            if (top >= 0) {
+                low[calls[top]] = Math.min(low[calls[top]], low[v]);
+            }
+            if (low[v] == index[v]) {
+                stackSize = emitComponent(v, stackSize);
+            }
+        }
+    }
+
+    // Pops v's component off the stack and works out the longest line from it
+    private int emitComponent(int v, int stackSize) {
+        int id = componentCount++;
+        if (id == componentSize.length) {
+            componentSize = Arrays.copyOf(componentSize, id * 2);
+            longest = Arrays.copyOf(longest, id * 2);
+        }
+        int first = stackSize;
+        do {
+            component[stack[--first]] = id;
+        } while (stack[first] != v);
+
+        int after = 0;
+        for (int i = first; i < stackSize; i++) {
+            int cell = stack[i];
+            for (int m = open[cell] & 0xFF; m != 0; m &= m - 1) {
+                int target = component[graph.target(cell, Integer.numberOfTrailingZeros(m))];
+                if (target != id) after = Math.max(after, longest[target]);
+            }
+        }
+        componentSize[id] = stackSize - first;
+        longest[id] = componentSize[id] + after;
+        return first;
+    }
+}
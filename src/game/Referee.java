@@ -1,62 +1,110 @@
 package game;
 
 import java.io.*;
+import java.lang.reflect.Constructor;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class Referee {
-    private static final int INIT_TIMEOUT_SECONDS = 2;  // ⏳ Max time for player constructor
-    private static final int MOVE_TIMEOUT_SECONDS = 1;  // ⏳ Max time per move
+    static final int INIT_TIMEOUT_SECONDS = 2;  // ⏳ Max time for player constructor
+    static final Pattern BOARD_NAME = Pattern.compile("board_(\\d+)x\\d+_(\\d+)\\.\\w+");
+    private static final Pattern LAST_NUMBER = Pattern.compile("(\\d{1,9})\\D*$");
+    // Turn away Player(Board) players instead of giving them a private copy of the board
+    private static final boolean REJECT_LEGACY_PLAYERS = Boolean.getBoolean("stuck.rejectLegacyPlayers");
+    private static final Set<String> LEGACY_WARNED = ConcurrentHashMap.newKeySet();
 
     public static int playGame(Player player, String studentID, String boardFile, boolean enableSnapshots) {
-        int boardNumber = extractBoardNumber(boardFile);
-        File snapshotFile = new File(String.format("snapshots/Player%s_Board%d.txt", studentID, boardNumber));
+        return playGame(player, studentID, extractBoardNumber(boardFile), enableSnapshots);
+    }
 
-        ExecutorService executor = Executors.newSingleThreadExecutor();
+    /** Plays a game on a board identified by id, e.g. one loaded from a {@link BoardPack}. */
+    public static int playGame(Player player, String studentID, int boardId, boolean enableSnapshots) {
+        return playGame(player, studentID, boardId, enableSnapshots, MoveBudget.DEFAULT);
+    }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(snapshotFile))) {
-            if (enableSnapshots) {
-                saveSnapshot(player.board, writer, 0, true);
-            }
+    /**
+     * Plays a game with every {@code nextMove()} call held to {@code budget}. The
+     * player's moves run on one long-lived worker thread for the whole game.
+     */
+    public static int playGame(Player player, String studentID, int boardId, boolean enableSnapshots,
+                               MoveBudget budget) {
+        return playGame(player, studentID, boardId, enableSnapshots, budget, new MoveMetrics());
+    }
+
+    /** Same, recording every move's time, allocation and overlapping GC into {@code metrics}. */
+    public static int playGame(Player player, String studentID, int boardId, boolean enableSnapshots,
+                               MoveBudget budget, MoveMetrics metrics) {
+        try (PlayerWorker worker = new PlayerWorker(player, "Player" + studentID + "-moves")) {
+            return playGame(worker, player.game, studentID, boardId, enableSnapshots, budget, metrics); // The player only holds a view
+        }
+    }
 
-            while (!player.board.isGameOver()) {
-                Future<Move> futureMove = executor.submit(player::nextMove);
-                Move move;
+    /**
+     * The game loop: asks {@code handle} for moves and applies them to
+     * {@code board} until the game ends or the player times out, fails or
+     * makes an illegal move. The handle stays open for the caller to reuse.
+     */
+    static int playGame(PlayerHandle handle, Board board, String studentID, int boardId, boolean enableSnapshots,
+                        MoveBudget budget, MoveMetrics metrics) {
+        int size = board.getSize();
+        File snapshotFile = new File(String.format("snapshots/Player%s_Board%dx%d_%d.snap", studentID, size, size, boardId));
 
-                try {
-                    move = futureMove.get(MOVE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-                } catch (TimeoutException e) {
-                    System.err.println("⏳ Timeout: Player " + studentID + " took too long to move! Ending game.");
+        // 📍 Initial board plus one byte per move; render any step with `java game.SnapshotLog <file> <step>`
+        try (SnapshotLog.Writer snapshots = enableSnapshots ? SnapshotLog.create(snapshotFile, board) : null) {
+            while (!board.isGameOver()) {
+                PlayerHandle.Outcome outcome = handle.requestMove(budget);
+                if (outcome == PlayerHandle.Outcome.TIMEOUT) {
+                    metrics.recordTimeout(handle, boardId, size, board.getStepCount());
+                    System.err.printf("⏳ Timeout: Player %s took too long to move! (%.3f ms CPU, %.3f ms wall,"
+                                    + " %d KB allocated, %d GCs for %d ms; budget %s) Ending game.%n",
+                            studentID, handle.getCpuNanos() / 1e6, handle.getWallNanos() / 1e6,
+                            handle.getAllocatedBytes() / 1024, handle.getGcCount(), handle.getGcMillis(), budget);
                     break;
-                } catch (Exception e) {
-                    System.err.println("❌ Runtime error in nextMove() for Player " + studentID + ": " + e.getMessage());
+                }
+                metrics.record(handle);
+                if (outcome == PlayerHandle.Outcome.ERROR) {
+                    System.err.println("❌ Runtime error in nextMove() for Player " + studentID + ": " + handle.getError());
                     break;
                 }
 
+                Move move = handle.getMove();
                 if (move == null) break;
-                if (!player.board.applyMove(move)) {
+                if (!board.applyMove(move)) {
                     System.err.println("🚫 Invalid move by Player " + studentID + ": " + move);
                     break;
                 }
+                handle.moveApplied(move);
 
-                if (enableSnapshots) {
-                    saveSnapshot(player.board, writer, player.board.getStepCount(), false);
+                if (snapshots != null) {
+                    snapshots.recordMove(move.getDirection(), board);
                 }
             }
+        } catch (InterruptedException e) {
+            System.err.println("❌ Game interrupted for Player " + studentID);
+            Thread.currentThread().interrupt();
         } catch (IOException e) {
             System.err.println("📍 Error writing snapshot for Player " + studentID + ": " + e.getMessage());
-        } finally {
-            executor.shutdownNow();
         }
 
-        return player.board.getStepCount();
+        metrics.finishGame();
+        return board.getStepCount();
     }
 
     public static Player initializePlayer(String studentID, Board board) {
+        return initializePlayer(studentID, board, Referee.class.getClassLoader());
+    }
+
+    /** Same as {@link #initializePlayer(String, Board)}, resolving the player class through {@code loader}. */
+    public static Player initializePlayer(String studentID, Board board, ClassLoader loader) {
         ExecutorService executor = Executors.newSingleThreadExecutor();
         Future<Player> future = executor.submit(() -> {
             try {
-                Class<?> playerClass = Class.forName("players.Player" + studentID);
-                return (Player) playerClass.getDeclaredConstructor(Board.class).newInstance(board);
+                return newPlayer(Class.forName("players.Player" + studentID, true, loader), board);
+            } catch (NoSuchMethodException e) {
+                System.err.println("🚫 " + e.getMessage());
+                return null;
             } catch (Exception e) {
                 return null;
             }
@@ -75,30 +123,66 @@ public class Referee {
         }
     }
 
-    private static int extractBoardNumber(String boardFile) {
+    /**
+     * Constructs a player on the read-only view of {@code board}. A player that
+     * only has the old {@code Player(Board)} constructor gets a private copy of
+     * the board instead, moved along with the referee's own after every move;
+     * {@code -Dstuck.rejectLegacyPlayers=true} rejects such players.
+     */
+    static Player newPlayer(Class<?> playerClass, Board board) throws ReflectiveOperationException {
+        Constructor<?> legacy;
         try {
-            String name = new File(boardFile).getName();
-            String digits = name.replaceAll("\\D+", "");
-            return Integer.parseInt(digits);
-        } catch (NumberFormatException e) {
-            return 0;
+            return (Player) playerClass.getDeclaredConstructor(BoardView.class).newInstance(board.view());
+        } catch (NoSuchMethodException e) {
+            try {
+                legacy = playerClass.getDeclaredConstructor(Board.class);
+            } catch (NoSuchMethodException none) {
+                throw new NoSuchMethodException(playerClass.getName() + " has no constructor taking a BoardView.");
+            }
+        }
+        if (REJECT_LEGACY_PLAYERS) {
+            throw new NoSuchMethodException(playerClass.getName() + " has no constructor taking a BoardView."
+                    + " Change Player(Board) to Player(BoardView).");
+        }
+        if (LEGACY_WARNED.add(playerClass.getName())) {
+            System.err.println("📍 " + playerClass.getName() + " takes a Board; it plays on a private copy."
+                    + " Change Player(Board) to Player(BoardView).");
         }
+        Board mirror = new Board(board);
+        Player player = (Player) legacy.newInstance(mirror);
+        player.game = board;
+        player.mirror = mirror;
+        return player;
     }
 
-    private static void saveSnapshot(Board board, BufferedWriter writer, int step, boolean isInitial) throws IOException {
-        writer.write((isInitial ? "Initial Board:\n" : "Step " + step + ":\n"));
-        for (int i = 0; i < board.getSize(); i++) {
-            for (int j = 0; j < board.getSize(); j++) {
-                if (i == board.getPlayerRow() && j == board.getPlayerCol()) {
-                    writer.write("* ");
-                } else if (board.isVisited(i, j)) {
-                    writer.write("  ");
-                } else {
-                    writer.write(board.getValueAt(i, j) + " ");
-                }
+    /**
+     * Whether {@code players.Player<ID>} loads through {@code loader} and has a
+     * constructor {@link #newPlayer} would use. A "no" repeats on every run,
+     * unlike a constructor that throws or runs out of time.
+     */
+    static boolean hasPlayerClass(String studentID, ClassLoader loader) {
+        try {
+            Class<?> playerClass = Class.forName("players.Player" + studentID, false, loader);
+            try {
+                playerClass.getDeclaredConstructor(BoardView.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                playerClass.getDeclaredConstructor(Board.class);
+                return !REJECT_LEGACY_PLAYERS;
             }
-            writer.newLine();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return false;
+        }
+    }
+
+    // board_<size>x<size>_<id>.dat -> id; otherwise the last run of digits in the name
+    static int extractBoardNumber(String boardFile) {
+        String name = new File(boardFile).getName();
+        Matcher m = BOARD_NAME.matcher(name);
+        if (m.matches()) {
+            return Integer.parseInt(m.group(2));
         }
-        writer.newLine();
+        m = LAST_NUMBER.matcher(name);
+        return m.find() ? Integer.parseInt(m.group(1)) : 0;
     }
 }
@@ -0,0 +1,360 @@
+package game;
+
+import java.io.*;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Content-addressed store of finished games and board solves, so a rerun only
+ * plays the (player, board) pairs whose inputs changed.
+ * <p>
+ * A game's key is the SHA-256 of:
+ * <ul>
+ *   <li>the player's compiled class bytes: {@code Player<ID>.class} and,
+ *       transitively, every {@code players} class named in a class already
+ *       included (nested classes, helpers, {@code Class.forName} strings),</li>
+ *   <li>the board contents,</li>
+ *   <li>the referee version, which is the hash of every class in {@code game},</li>
+ *   <li>the per-move budget.</li>
+ * </ul>
+ * Changing any of them misses the cache. Entries are games ({@link GameEntry})
+ * or board solves ({@link SolveEntry}), kept in {@code <dir>/results.tsv}.
+ * New results are appended as they finish, so an interrupted run keeps what
+ * it completed. On open the file is compacted:
+ * entries older than {@code stuck.cacheMaxAgeDays} (default 30) are dropped,
+ * then the least recently used ones beyond {@code stuck.cacheMaxEntries}
+ * (default 100000).
+ */
+final class ResultCache implements Closeable {
+    private static final String FILE_NAME = "results.tsv";
+
+    private final File file;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final String refereeVersion;
+    private PrintWriter appender;
+
+    private ResultCache(File dir) throws IOException {
+        dir.mkdirs();
+        this.file = new File(dir, FILE_NAME);
+        this.refereeVersion = hashClasses("game/");
+    }
+
+    /** Opens (and compacts) the cache in {@code dir}. */
+    static ResultCache open(File dir) throws IOException {
+        ResultCache cache = new ResultCache(dir);
+        cache.load();
+        cache.compact(Long.getLong("stuck.cacheMaxAgeDays", 30) * 86_400_000L,
+                Integer.getInteger("stuck.cacheMaxEntries", 100_000));
+        cache.appender = new PrintWriter(new BufferedWriter(new FileWriter(cache.file, UTF_8, true)));
+        return cache;
+    }
+
+    /**
+     * Hash of the classes a student's player can load, or null if
+     * {@code Player<ID>.class} cannot be found. Names are found by scanning the
+     * class bytes, so a false match only adds a class to the hash.
+     */
+    static String playerHash(String studentID) throws IOException {
+        ClassLoader loader = ResultCache.class.getClassLoader();
+        SortedMap<String, byte[]> classes = new TreeMap<>();
+        Deque<String> pending = new ArrayDeque<>();
+        pending.add("Player" + studentID);
+        while (!pending.isEmpty()) {
+            String name = pending.pop();
+            if (classes.containsKey(name)) continue;
+            try (InputStream in = loader.getResourceAsStream("players/" + name + ".class")) {
+                if (in == null) {
+                    if (classes.isEmpty()) return null; // No Player<ID> at all
+                    continue;
+                }
+                byte[] bytes = in.readAllBytes();
+                classes.put(name, bytes);
+                pending.addAll(referencedPlayerClasses(bytes));
+            }
+        }
+        return digest(classes);
+    }
+
+    // Names after "players/" or "players." in a class file's constants, as paths relative to players/
+    private static Set<String> referencedPlayerClasses(byte[] classBytes) {
+        String text = new String(classBytes, ISO_8859_1);
+        Set<String> names = new HashSet<>();
+        for (String prefix : new String[]{"players/", "players."}) {
+            char separator = prefix.charAt(prefix.length() - 1);
+            for (int at = text.indexOf(prefix); at >= 0; at = text.indexOf(prefix, at + 1)) {
+                int end = at + prefix.length();
+                while (end < text.length() && isNameChar(text.charAt(end), separator)) {
+                    end++;
+                }
+                String name = text.substring(at + prefix.length(), end).replace(separator, '/');
+                while (name.endsWith("/")) {
+                    name = name.substring(0, name.length() - 1);
+                }
+                if (!name.isEmpty()) {
+                    names.add(name);
+                }
+            }
+        }
+        return names;
+    }
+
+    // ASCII only: isJavaIdentifierPart() would also accept the control bytes between constants
+    private static boolean isNameChar(char c, char separator) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_' || c == '$'
+                || c == separator;
+    }
+
+    /** Key of one (player, board) game, or null when the player has no hash (nothing is cached for it). */
+    String gameKey(String playerHash, String boardHash, MoveBudget budget) {
+        if (playerHash == null) return null;
+        return sha256("game", playerHash, boardHash, refereeVersion,
+                budget.getCpuNanos() + "/" + budget.getWallNanos());
+    }
+
+    /** Key of a board's min-steps bounds under a solver budget. */
+    String solveKey(String boardHash, long budgetMillis) {
+        return sha256("solve", boardHash, refereeVersion, Long.toString(budgetMillis));
+    }
+
+    static String boardHash(Tester.BoardData data) {
+        MessageDigest digest = newDigest();
+        digest.update((data.size + " " + data.startRow + " " + data.startCol + "\n").getBytes(UTF_8));
+        byte[] row = new byte[data.size];
+        int[] values = new int[data.size];
+        for (int r = 0; r < data.size; r++) {
+            data.grid.copyRow(r, values);
+            for (int c = 0; c < data.size; c++) {
+                row[c] = (byte) values[c];
+            }
+            digest.update(row);
+        }
+        return toHex(digest.digest());
+    }
+
+    GameEntry getGame(String key) {
+        Entry entry = get(key);
+        return entry instanceof GameEntry ? (GameEntry) entry : null;
+    }
+
+    SolveEntry getSolve(String key) {
+        Entry entry = get(key);
+        return entry instanceof SolveEntry ? (SolveEntry) entry : null;
+    }
+
+    private synchronized Entry get(String key) {
+        Entry entry = key == null ? null : entries.get(key);
+        if (entry != null) {
+            entry.lastUsed = System.currentTimeMillis(); // Persisted at the next compaction
+        }
+        return entry;
+    }
+
+    synchronized void put(String key, Entry entry) {
+        if (key == null) return;
+        entry.lastUsed = System.currentTimeMillis();
+        entries.put(key, entry);
+        appender.println(key + "\t" + entry);
+        appender.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        appender.close();
+        rewrite(); // Saves the lastUsed times of hits
+    }
+
+    private void load() throws IOException {
+        if (!file.isFile()) return;
+        int skipped = 0;
+        try (BufferedReader in = new BufferedReader(new FileReader(file, UTF_8))) {
+            for (String line; (line = in.readLine()) != null; ) {
+                String[] fields = line.split("\t");
+                try {
+                    entries.put(fields[0], Entry.parse(fields)); // Later lines win
+                } catch (RuntimeException e) {
+                    skipped++;
+                }
+            }
+        }
+        if (skipped > 0) {
+            System.err.println("📍 Dropped " + skipped + " damaged or outdated lines from " + file);
+        }
+    }
+
+    private void compact(long maxAgeMillis, int maxEntries) throws IOException {
+        long oldest = System.currentTimeMillis() - maxAgeMillis;
+        entries.values().removeIf(e -> e.lastUsed < oldest);
+        if (entries.size() > maxEntries) {
+            List<Map.Entry<String, Entry>> byAge = new ArrayList<>(entries.entrySet());
+            byAge.sort(Comparator.comparingLong(e -> e.getValue().lastUsed));
+            for (Map.Entry<String, Entry> e : byAge.subList(0, entries.size() - maxEntries)) {
+                entries.remove(e.getKey());
+            }
+        }
+        rewrite();
+    }
+
+    private void rewrite() throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(temp, UTF_8)))) {
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                out.println(e.getKey() + "\t" + e.getValue());
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // ---------------------------------------------------------------- hashing
+
+    /** SHA-256 over the .class files of one package directory, or null if there are none. */
+    private static String hashClasses(String packageDir) throws IOException {
+        URL url = ResultCache.class.getClassLoader().getResource(packageDir);
+        if (url == null) return null;
+
+        SortedMap<String, byte[]> classes = new TreeMap<>();
+        if (url.getProtocol().equals("jar")) {
+            JarURLConnection connection = (JarURLConnection) url.openConnection();
+            connection.setUseCaches(false);
+            try (JarFile jar = connection.getJarFile()) {
+                for (JarEntry entry : Collections.list(jar.entries())) {
+                    String name = entry.getName();
+                    if (name.startsWith(packageDir) && name.endsWith(".class")
+                            && name.indexOf('/', packageDir.length()) < 0) {
+                        try (InputStream in = jar.getInputStream(entry)) {
+                            classes.put(name, in.readAllBytes());
+                        }
+                    }
+                }
+            }
+        } else {
+            File[] files;
+            try {
+                files = Paths.get(url.toURI()).toFile().listFiles();
+            } catch (URISyntaxException e) {
+                throw new IOException("Cannot list " + url, e);
+            }
+            for (File f : files == null ? new File[0] : files) {
+                if (f.getName().endsWith(".class")) {
+                    classes.put(f.getName(), Files.readAllBytes(f.toPath()));
+                }
+            }
+        }
+        return digest(classes);
+    }
+
+    private static String digest(SortedMap<String, byte[]> classes) {
+        if (classes.isEmpty()) return null;
+        MessageDigest digest = newDigest();
+        for (Map.Entry<String, byte[]> c : classes.entrySet()) {
+            digest.update(c.getKey().getBytes(UTF_8));
+            digest.update(c.getValue());
+        }
+        return toHex(digest.digest());
+    }
+
+    private static String sha256(String... parts) {
+        MessageDigest digest = newDigest();
+        for (String part : parts) {
+            digest.update(part.getBytes(UTF_8));
+            digest.update((byte) 0);
+        }
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java runtime", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >>> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /** How a cached game ended. */
+    enum Outcome {
+        FINISHED,
+        CRASHED,      // Timeout or crash during the game; never cached, since a rerun may go differently
+        DISQUALIFIED  // The player could not be set up; scored against the 9999 penalty, not minSteps.
+                      // Cached only when its class cannot be loaded or constructed at all
+    }
+
+    /** A cached game or solve, stored as {@code key, kind, fields..., lastUsed}. */
+    abstract static class Entry {
+        long lastUsed;
+
+        static Entry parse(String[] fields) {
+            Entry entry;
+            switch (fields[1]) {
+                case "game":
+                    entry = new GameEntry(Outcome.valueOf(fields[2]), Integer.parseInt(fields[3]),
+                            Integer.parseInt(fields[4]), Long.parseLong(fields[5]));
+                    break;
+                case "solve":
+                    entry = new SolveEntry(Integer.parseInt(fields[2]), Integer.parseInt(fields[3]),
+                            Long.parseLong(fields[4]));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown cache entry kind " + fields[1]);
+            }
+            entry.lastUsed = Long.parseLong(fields[fields.length - 1]);
+            return entry;
+        }
+    }
+
+    /** One game: how it ended, the player's steps, its score and wall time. */
+    static final class GameEntry extends Entry {
+        final Outcome outcome;
+        final int yourSteps;
+        final int score;
+        final long wallMillis;
+
+        GameEntry(Outcome outcome, int yourSteps, int score, long wallMillis) {
+            this.outcome = outcome;
+            this.yourSteps = yourSteps;
+            this.score = score;
+            this.wallMillis = wallMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "game\t" + outcome + "\t" + yourSteps + "\t" + score + "\t" + wallMillis + "\t" + lastUsed;
+        }
+    }
+
+    /** Proven bounds on a board's minimum steps under one solver budget. */
+    static final class SolveEntry extends Entry {
+        final int lowerBound;
+        final int upperBound;
+        final long wallMillis;
+
+        SolveEntry(int lowerBound, int upperBound, long wallMillis) {
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+            this.wallMillis = wallMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "solve\t" + lowerBound + "\t" + upperBound + "\t" + wallMillis + "\t" + lastUsed;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package game;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact record of a game: the initial board once, then one byte per move,
+ * with a keyframe of the full visited state every {@link #KEYFRAME_INTERVAL} moves.
+ * <p>
+ * Layout: {@code STKS}, version, size, startRow, startCol, keyframe interval,
+ * the grid at 4 bits per cell, then repeating blocks of {@code interval} move
+ * bytes (direction 0-7) followed by a keyframe (player cell as an int, then the
+ * visited cells row-major at one bit each). Every block has the same length,
+ * so the keyframe before any step is found by arithmetic and step {@code k} is
+ * rebuilt from it with at most {@code interval} moves.
+ * <pre>
+ * java game.SnapshotLog &lt;snapshotFile&gt; [step|all]
+ * </pre>
+ */
+public class SnapshotLog {
+    static final int MAGIC = 0x53544B53; // "STKS"
+    static final int VERSION = 1;
+    static final int KEYFRAME_INTERVAL = 64;
+    private static final int HEADER_BYTES = 4 + 1 + 4 * 4;
+
+    private final FileChannel channel;
+    private final String name;
+    private final int size;
+    private final PackedGrid grid;
+    private final int startRow;
+    private final int startCol;
+    private final int interval;
+    private final long movesOffset;
+    private final int keyframeBytes;
+    private final int stepCount;
+
+    private SnapshotLog(FileChannel channel, String name) throws IOException {
+        this.channel = channel;
+        this.name = name;
+        ByteBuffer header = read(0, HEADER_BYTES);
+        if (header.getInt() != MAGIC || header.get() != VERSION) {
+            throw new IOException(name + " is not a snapshot log.");
+        }
+        size = header.getInt();
+        startRow = header.getInt();
+        startCol = header.getInt();
+        interval = header.getInt();
+        if (size <= 0 || interval <= 0) {
+            throw new IOException(name + " has a damaged header.");
+        }
+
+        int gridBytes = (int) (((long) size * size + 1) / 2);
+        ByteBuffer cells = read(HEADER_BYTES, gridBytes);
+        PackedGrid.Builder builder = new PackedGrid.Builder(size);
+        for (int i = 0; i < size * size; i++) {
+            int b = cells.get(i >>> 1);
+            builder.set(i / size, i % size, (i & 1) == 0 ? (b >>> 4) & 0xF : b & 0xF);
+        }
+        grid = builder.build();
+
+        movesOffset = HEADER_BYTES + gridBytes;
+        keyframeBytes = 4 + (int) (((long) size * size + 7) / 8);
+        long data = channel.size() - movesOffset;
+        long block = interval + keyframeBytes;
+        stepCount = (int) ((data / block) * interval + Math.min(data % block, interval));
+    }
+
+    public static SnapshotLog open(String filename) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        try {
+            return new SnapshotLog(channel, filename);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static Writer create(File file, Board board) throws IOException {
+        return new Writer(file, board);
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    /** Rebuilds the position after {@code step} moves from the nearest keyframe. */
+    public Board boardAt(int step) throws IOException {
+        if (step < 0 || step > stepCount) {
+            throw new IOException(name + " has no step " + step + " (0-" + stepCount + ")");
+        }
+
+        int block = step / interval;
+        Board board;
+        if (block == 0) {
+            board = new Board(grid, startRow, startCol);
+        } else {
+            long keyframe = movesOffset + (long) block * (interval + keyframeBytes) - keyframeBytes;
+            ByteBuffer buf = read(keyframe, keyframeBytes);
+            int player = buf.getInt();
+            long[] cells = new long[(size * size + 63) >>> 6];
+            for (int i = 0; buf.hasRemaining(); i++) {
+                cells[i >>> 3] |= (buf.get() & 0xFFL) << ((i & 7) * 8);
+            }
+            board = new Board(grid, cells, player / size, player % size, block * interval);
+        }
+
+        int pending = step - block * interval;
+        ByteBuffer moves = read(movesOffset + (long) block * (interval + keyframeBytes), pending);
+        while (moves.hasRemaining()) {
+            int direction = moves.get();
+            if (!board.applyMove(direction)) {
+                throw new IOException(name + " records an illegal move at step " + board.getStepCount());
+            }
+        }
+        return board;
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new IOException(name + " is truncated.");
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /** Text rendering in the layout the old per-move snapshot files used. */
+    static void render(Board board, Appendable out) throws IOException {
+        int step = board.getStepCount();
+        out.append(step == 0 ? "Initial Board:\n" : "Step " + step + ":\n");
+        StringBuilder line = new StringBuilder(2 * board.getSize());
+        for (int i = 0; i < board.getSize(); i++) {
+            line.setLength(0);
+            for (int j = 0; j < board.getSize(); j++) {
+                if (i == board.getPlayerRow() && j == board.getPlayerCol()) {
+                    line.append("* ");
+                } else if (board.isVisited(i, j)) {
+                    line.append("  ");
+                } else {
+                    line.append(board.getValueAt(i, j)).append(' ');
+                }
+            }
+            out.append(line).append('\n');
+        }
+        out.append('\n');
+    }
+
+    /** Appends moves during a game; costs one buffered byte per move plus a keyframe every interval. */
+    public static final class Writer implements Closeable {
+        private final DataOutputStream out;
+        private final int size;
+        private int steps;
+
+        private Writer(File file, Board board) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 14));
+            this.size = board.getSize();
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(size);
+            out.writeInt(board.getPlayerRow());
+            out.writeInt(board.getPlayerCol());
+            out.writeInt(KEYFRAME_INTERVAL);
+
+            int pending = -1;
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    int value = board.getValueAt(r, c);
+                    if (pending < 0) {
+                        pending = value;
+                    } else {
+                        out.writeByte((pending << 4) | value);
+                        pending = -1;
+                    }
+                }
+            }
+            if (pending >= 0) {
+                out.writeByte(pending << 4);
+            }
+        }
+
+        /** Records a move that has just been applied to {@code board}. */
+        public void recordMove(int direction, Board board) throws IOException {
+            out.writeByte(direction);
+            if (++steps % KEYFRAME_INTERVAL == 0) {
+                writeKeyframe(board);
+            }
+        }
+
+        private void writeKeyframe(Board board) throws IOException {
+            out.writeInt(board.getPlayerRow() * size + board.getPlayerCol());
+            int bits = 0;
+            int count = 0;
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    if (board.isVisited(r, c)) {
+                        bits |= 1 << count;
+                    }
+                    if (++count == 8) {
+                        out.writeByte(bits);
+                        bits = 0;
+                        count = 0;
+                    }
+                }
+            }
+            if (count > 0) {
+                out.writeByte(bits);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: java game.SnapshotLog <snapshotFile> [step|all]");
+            return;
+        }
+
+        try {
+            SnapshotLog log = open(args[0]);
+            try {
+                StringBuilder text = new StringBuilder();
+                if (args.length < 2) {
+                    System.out.println(args[0] + ": " + log.size + "x" + log.size + ", " + log.stepCount + " steps");
+                    render(log.boardAt(log.stepCount), text);
+                } else if (args[1].equals("all")) {
+                    for (int step = 0; step <= log.stepCount; step++) {
+                        render(log.boardAt(step), text);
+                    }
+                } else {
+                    render(log.boardAt(Integer.parseInt(args[1])), text);
+                }
+                System.out.print(text);
+            } finally {
+                log.close();
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Computes the minimum number of moves needed to get stuck on a board.
+ * <p>
+ * The search is an iterative deepening DFS that makes and unmakes moves on a
+ * single private board, backed by a transposition table of refuted positions.
+ * Positions whose {@link ReachabilityAnalyzer#lowerBound(int)} exceeds the
+ * depth left are refuted without expanding them, and positions covered by a
+ * {@link Tablebase} (see {@link #setTablebase}) are answered from it.
+ * Before deepening, a batch of greedy playouts provides an upper bound, so a
+ * solve that runs out of time still reports a proven interval
+ * {@code [lowerBound, upperBound]} instead of nothing.
+ */
+public class Solver {
+    private static final int TIME_CHECK_INTERVAL = 4096;
+    private static final int PLAYOUT_COUNT = 256;
+    private static final int TABLE_BITS = 20;
+
+    private final Board root;
+    private final TranspositionTable table = new TranspositionTable(TABLE_BITS);
+    private final Random random = new Random(0x5EED);
+    private ReachabilityAnalyzer reachability; // Follows root through every make/undo
+    private Tablebase tablebase;
+
+    private long deadline;
+    private long nodes;
+    private boolean aborted;
+
+    public Solver(Board board) {
+        this.root = new Board(board);
+    }
+
+    /** Answers every position the table covers without searching it. */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Solves the root position within the given time limit.
+     *
+     * @param timeLimitMillis wall-clock budget; the result is exact when {@link Result#isOptimal()}
+     */
+    public Result solve(long timeLimitMillis) {
+        long start = System.nanoTime();
+        deadline = start + timeLimitMillis * 1_000_000L;
+        nodes = 0;
+        aborted = false;
+        reachability = new ReachabilityAnalyzer(root);
+        List<Move> known = tablebase == null ? null : tablebase.line(root);
+        if (known != null) {
+            return new Result(known.size(), known.size(), known, 0, System.nanoTime() - start);
+        }
+
+        List<Move> bestLine = greedyUpperBound(root, random, deadline);
+        int upperBound = bestLine.size();
+        int lowerBound = 0;
+
+        // ✅ Each completed depth proves that no shorter line gets stuck
+        for (int depth = 0; depth < upperBound && !aborted; depth++) {
+            List<Move> line = new ArrayList<>();
+            if (search(depth, line)) {
+                Collections.reverse(line);
+                bestLine = line;
+                upperBound = depth;
+                lowerBound = depth;
+                break;
+            }
+            if (!aborted) {
+                lowerBound = depth + 1;
+            }
+        }
+
+        return new Result(lowerBound, upperBound, bestLine, nodes, System.nanoTime() - start);
+    }
+
+    private boolean search(int remaining, List<Move> line) {
+        if (++nodes % TIME_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+            aborted = true;
+        }
+        if (aborted) return false;
+
+        int mask = root.legalMoveMask();
+        if (mask == 0) return true;
+        long key = root.getZobristKey();
+        if (remaining == 0 || table.isRefuted(key, remaining)) return false;
+        int known = tablebase == null ? Tablebase.UNKNOWN : tablebase.probe(root);
+        if (known > remaining) { // Also right for AT_LEAST, which is more than any depth below it
+            table.storeRefuted(key, remaining);
+            return false;
+        }
+        if (known >= 0 && known < Tablebase.AT_LEAST) {
+            List<Move> rest = tablebase.line(root);
+            for (int i = rest.size() - 1; i >= 0; i--) {
+                line.add(rest.get(i)); // Reversed, like the moves added below
+            }
+            return true;
+        }
+        if (reachability.lowerBound(remaining) > remaining) { // Cannot get stuck in time, whatever is played
+            table.storeRefuted(key, remaining);
+            return false;
+        }
+
+        for (; mask != 0; mask &= mask - 1) {
+            int direction = Integer.numberOfTrailingZeros(mask);
+            long undo = root.makeMove(direction);
+            reachability.push();
+            boolean found = search(remaining - 1, line);
+            root.undoMove(undo);
+            reachability.pop();
+            if (found) {
+                line.add(Move.of(direction));
+                return true;
+            }
+            if (aborted) return false;
+        }
+
+        table.storeRefuted(key, remaining);
+        return false;
+    }
+
+    /** Shortest line found by up to {@code PLAYOUT_COUNT} greedy playouts from {@code root} before the deadline. */
+    static List<Move> greedyUpperBound(Board root, Random random, long deadline) {
+        List<Move> best = null;
+        for (int i = 0; i < PLAYOUT_COUNT && System.nanoTime() < deadline; i++) {
+            List<Move> line = greedyPlayout(root, random, i == 0, best == null ? Integer.MAX_VALUE : best.size());
+            if (line != null && (best == null || line.size() < best.size())) {
+                best = line;
+            }
+        }
+        return best != null ? best : greedyPlayout(root, random, true, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Plays toward the neighbour with the fewest exits; ties are broken randomly
+     * unless {@code deterministic} is set. Gives up once it cannot beat {@code cutoff}.
+     */
+    private static List<Move> greedyPlayout(Board root, Random random, boolean deterministic, int cutoff) {
+        Board board = new Board(root);
+        List<Move> line = new ArrayList<>();
+        int mask = board.legalMoveMask();
+        while (mask != 0) {
+            if (line.size() + 1 >= cutoff) return null;
+
+            int chosen = -1;
+            int chosenMask = 0;
+            int fewest = Integer.MAX_VALUE;
+            int ties = 0;
+            for (int m = mask; m != 0; m &= m - 1) {
+                int direction = Integer.numberOfTrailingZeros(m);
+                long undo = board.makeMove(direction);
+                int childMask = board.legalMoveMask();
+                board.undoMove(undo);
+                int exits = Integer.bitCount(childMask);
+                if (exits < fewest) {
+                    fewest = exits;
+                    chosen = direction;
+                    chosenMask = childMask;
+                    ties = 1;
+                } else if (exits == fewest && !deterministic && random.nextInt(++ties) == 0) {
+                    chosen = direction;
+                    chosenMask = childMask;
+                }
+            }
+
+            board.makeMove(chosen);
+            line.add(Move.of(chosen));
+            mask = chosenMask;
+        }
+        return line;
+    }
+
+    /**
+     * Fixed-size, always-replace table of positions known to need more than
+     * {@code remaining} moves.
+     */
+    private static final class TranspositionTable {
+        private final long[] keys;
+        private final byte[] depths;
+        private final int mask;
+
+        TranspositionTable(int bits) {
+            keys = new long[1 << bits];
+            depths = new byte[1 << bits];
+            mask = (1 << bits) - 1;
+        }
+
+        boolean isRefuted(long key, int remaining) {
+            int slot = (int) key & mask;
+            return keys[slot] == key && depths[slot] >= remaining;
+        }
+
+        void storeRefuted(long key, int remaining) {
+            int slot = (int) key & mask;
+            keys[slot] = key;
+            depths[slot] = (byte) Math.min(remaining, Byte.MAX_VALUE);
+        }
+    }
+
+    public static final class Result {
+        private final int lowerBound;
+        private final int upperBound;
+        private final List<Move> bestLine;
+        private final long nodes;
+        private final long elapsedNanos;
+
+        Result(int lowerBound, int upperBound, List<Move> bestLine, long nodes, long elapsedNanos) {
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+            this.bestLine = Collections.unmodifiableList(bestLine);
+            this.nodes = nodes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /** Proven: no sequence shorter than this gets stuck. */
+        public int getLowerBound() {
+            return lowerBound;
+        }
+
+        /** Proven: {@link #getBestLine()} gets stuck in this many moves. */
+        public int getUpperBound() {
+            return upperBound;
+        }
+
+        public boolean isOptimal() {
+            return lowerBound == upperBound;
+        }
+
+        public List<Move> getBestLine() {
+            return bestLine;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("minSteps in [%d, %d]%s, %d nodes in %d ms",
+                    lowerBound, upperBound, isOptimal() ? " (optimal)" : "",
+                    nodes, elapsedNanos / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,480 @@
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Exact moves-to-stuck for every position inside a small region of a grid:
+ * a whole 5x5 board, or the few cells still in play late in a game on a
+ * larger one.
+ * <p>
+ * A state is a player cell of the region plus the set of region cells still
+ * unvisited; cells outside the region count as visited. The table holds the
+ * minimum number of moves to get stuck from each state, 4 bits per state
+ * ({@code AT_LEAST} for 15 or more), so a 25-cell region takes 25 x 2^24
+ * states in 200 MB. It is filled backwards from the end of the game: every
+ * move visits at least one cell, so a state only depends on states with fewer
+ * unvisited cells, and all states with the same number are computed in
+ * parallel on a {@link ForkJoinPool}.
+ * <p>
+ * {@link #probe(BoardView)} answers for any position of the grid whose player
+ * stands in the region, as long as the region is sealed: every jump from a
+ * region cell that leaves the region must cross a visited cell. Regions from
+ * {@link #liveRegion(BoardView, int)} are sealed for the rest of the game. A
+ * probe reads the region's cells and one table entry, whatever the board size.
+ * <p>
+ * Files start with a header ({@code STKT}, version, board size, grid checksum,
+ * region cells) followed by the 4-bit entries, and are memory-mapped. The
+ * magic is written last, so an interrupted build is never opened.
+ * <pre>
+ * java game.Tablebase build &lt;boardFile&gt; &lt;tableFile&gt; [all|moves] [threads]
+ * java game.Tablebase probe &lt;boardFile&gt; &lt;tableFile&gt; [moves]
+ * </pre>
+ * {@code moves} (e.g. {@code N,SE,W}) are played from the board's start first;
+ * {@code build} then tables the live region of that position, or the whole
+ * grid with {@code all} (boards of up to {@code MAX_CELLS} cells).
+ */
+public final class Tablebase {
+    static final int MAGIC = 0x53544B54; // "STKT"
+    static final int VERSION = 1;
+    /** Largest region: a whole 5x5 board. */
+    public static final int MAX_CELLS = 25;
+    /** Stored for 15 or more moves; such a probe only proves the lower bound. */
+    public static final int AT_LEAST = 15;
+    /** Returned by {@link #probe} when the position is outside the table. */
+    public static final int UNKNOWN = -1;
+    private static final int CHUNK = 1 << 14; // Unvisited sets per task
+
+    private final long checksum;
+    private final int size;
+    private final int[] cells;     // Region cells (row * size + col), sorted
+    private final int[] paths;     // [i * 8 + d]: region bits the jump crosses, or 0 if it has no target in the region
+    private final byte[] targets;  // [i * 8 + d]: region index of the landing cell
+    private final int[][] exits;   // [i * 8 + d]: cells crossed by a jump that leaves the region, else null
+    private final int restBits;    // Unvisited bits besides the player's
+    private final ByteBuffer data;
+    private volatile PackedGrid verified; // Last grid instance found to match checksum
+
+    private Tablebase(PackedGrid grid, long checksum, int[] cells, ByteBuffer data) {
+        this.checksum = checksum;
+        this.size = grid.getSize();
+        this.cells = cells;
+        this.restBits = cells.length - 1;
+        this.data = data;
+        this.verified = grid;
+        this.paths = new int[cells.length * 8];
+        this.targets = new byte[cells.length * 8];
+        this.exits = new int[cells.length * 8][];
+
+        for (int i = 0; i < cells.length; i++) {
+            int row = cells[i] / size;
+            int col = cells[i] % size;
+            for (int d = 0; d < 8; d++) {
+                int r = row + Board.D_ROW[d];
+                int c = col + Board.D_COL[d];
+                if (!inBounds(r, c)) continue;
+                int step = grid.get(r, c);
+                if (step < 1 || !inBounds(row + Board.D_ROW[d] * step, col + Board.D_COL[d] * step)) continue;
+
+                int[] path = new int[step];
+                int bits = 0;
+                for (int k = 1; k <= step; k++) {
+                    path[k - 1] = (row + Board.D_ROW[d] * k) * size + col + Board.D_COL[d] * k;
+                    int j = Arrays.binarySearch(cells, path[k - 1]);
+                    bits = j >= 0 && bits != -1 ? bits | 1 << j : -1;
+                }
+                if (bits == -1) {
+                    exits[i * 8 + d] = path;
+                } else {
+                    paths[i * 8 + d] = bits;
+                    targets[i * 8 + d] = (byte) Arrays.binarySearch(cells, path[step - 1]);
+                }
+            }
+        }
+    }
+
+    private boolean inBounds(int row, int col) {
+        return row >= 0 && row < size && col >= 0 && col < size;
+    }
+
+    /**
+     * The cells that can still matter from {@code position}: the player cell and,
+     * transitively, every cell crossed by a jump that is still open from a cell
+     * already included. Every other jump from these cells crosses a visited
+     * cell, so the region stays sealed for the rest of the game. Returns the
+     * sorted cells, or null if there are more than {@code maxCells}.
+     */
+    public static int[] liveRegion(BoardView position, int maxCells) {
+        if (maxCells < 1) return null;
+        int size = position.getSize();
+        int[] region = new int[maxCells];
+        int count = 0;
+        region[count++] = position.getPlayerRow() * size + position.getPlayerCol();
+
+        for (int next = 0; next < count; next++) {
+            int row = region[next] / size;
+            int col = region[next] % size;
+            for (int d = 0; d < 8; d++) {
+                int r = row + Board.D_ROW[d];
+                int c = col + Board.D_COL[d];
+                if (r < 0 || r >= size || c < 0 || c >= size || position.isVisited(r, c)) continue;
+                int step = position.getValueAt(r, c);
+                int tr = row + Board.D_ROW[d] * step;
+                int tc = col + Board.D_COL[d] * step;
+                if (step < 1 || tr < 0 || tr >= size || tc < 0 || tc >= size) continue;
+
+                boolean open = true;
+                for (int k = 2; k <= step && open; k++) {
+                    open = !position.isVisited(row + Board.D_ROW[d] * k, col + Board.D_COL[d] * k);
+                }
+                if (!open) continue;
+                for (int k = 1; k <= step; k++) {
+                    int cell = (row + Board.D_ROW[d] * k) * size + col + Board.D_COL[d] * k;
+                    if (indexOf(region, count, cell) >= 0) continue;
+                    if (count == maxCells) return null;
+                    region[count++] = cell;
+                }
+            }
+        }
+        int[] cells = Arrays.copyOf(region, count);
+        Arrays.sort(cells);
+        return cells;
+    }
+
+    private static int indexOf(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) return i;
+        }
+        return -1;
+    }
+
+    /** Every cell of a board of up to {@code MAX_CELLS} cells, so the table covers all starts. */
+    public static int[] wholeGrid(int size) {
+        int[] cells = new int[size * size];
+        Arrays.setAll(cells, i -> i);
+        return cells;
+    }
+
+    /** Builds the table for {@code region} of the position's grid in memory. */
+    public static Tablebase build(BoardView position, int[] region, ForkJoinPool pool) {
+        PackedGrid grid = Board.behind(position).getGrid();
+        checkRegion(grid, region);
+        Tablebase table = new Tablebase(grid, grid.checksum(), region, ByteBuffer.allocate(dataBytes(region.length)));
+        table.fill(pool);
+        return table;
+    }
+
+    /** Builds the table for {@code region} of {@code grid} into {@code file}, which stays mapped. */
+    public static Tablebase generate(PackedGrid grid, int[] region, Path file, ForkJoinPool pool) throws IOException {
+        checkRegion(grid, region);
+        int headerBytes = headerBytes(region.length);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(headerBytes);
+            header.putInt(0).put((byte) VERSION).putInt(grid.getSize()).putLong(grid.checksum()).putInt(region.length);
+            for (int cell : region) {
+                header.putInt(cell);
+            }
+            header.flip();
+            channel.write(header, 0);
+
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_WRITE, headerBytes, dataBytes(region.length));
+            Tablebase table = new Tablebase(grid, grid.checksum(), region, data);
+            table.fill(pool);
+            data.force();
+            channel.write(ByteBuffer.allocate(4).putInt(0, MAGIC), 0); // ✅ Complete
+            channel.force(true);
+            return table;
+        }
+    }
+
+    /** Maps a table file built for {@code grid}. */
+    public static Tablebase open(Path file, PackedGrid grid) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(4 + 1 + 4 + 8 + 4);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < header.capacity() || header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a tablebase, or its build did not finish");
+            }
+            int version = header.get();
+            if (version != VERSION) {
+                throw new IOException(file + " has tablebase version " + version + ", expected " + VERSION);
+            }
+            int size = header.getInt();
+            long checksum = header.getLong();
+            int count = header.getInt();
+            if (size != grid.getSize() || checksum != grid.checksum()) {
+                throw new IOException(file + " was built for another grid");
+            }
+            if (count < 1 || count > MAX_CELLS
+                    || channel.size() != headerBytes(count) + (long) dataBytes(count)) {
+                throw new IOException(file + " is truncated or corrupt");
+            }
+
+            ByteBuffer region = ByteBuffer.allocate(4 * count);
+            channel.read(region, header.capacity());
+            region.flip();
+            int[] cells = new int[count];
+            for (int i = 0; i < count; i++) {
+                cells[i] = region.getInt();
+            }
+            checkRegion(grid, cells);
+            return new Tablebase(grid, checksum, cells,
+                    channel.map(FileChannel.MapMode.READ_ONLY, headerBytes(count), dataBytes(count)));
+        } catch (IllegalArgumentException e) {
+            throw new IOException(file + " is corrupt: " + e.getMessage());
+        }
+    }
+
+    private static void checkRegion(PackedGrid grid, int[] region) {
+        if (region.length < 1 || region.length > MAX_CELLS) {
+            throw new IllegalArgumentException("A region needs 1-" + MAX_CELLS + " cells, not " + region.length);
+        }
+        long cellCount = (long) grid.getSize() * grid.getSize();
+        for (int i = 0; i < region.length; i++) {
+            if (region[i] < 0 || region[i] >= cellCount || (i > 0 && region[i] <= region[i - 1])) {
+                throw new IllegalArgumentException("Region cells must be distinct board cells in ascending order");
+            }
+        }
+    }
+
+    private static int headerBytes(int count) {
+        return 4 + 1 + 4 + 8 + 4 + 4 * count;
+    }
+
+    private static int dataBytes(int count) {
+        return (int) (((long) count << (count - 1)) + 1 >>> 1);
+    }
+
+    public int getRegionSize() {
+        return cells.length;
+    }
+
+    /** The region's cells as {@code row * size + col}, in ascending order. */
+    public int[] getRegion() {
+        return cells.clone();
+    }
+
+    /**
+     * Minimum moves for {@code position} to get stuck: exact below
+     * {@code AT_LEAST}, "at least" at it, or {@code UNKNOWN} if the player is
+     * outside the region or the region is not sealed.
+     *
+     * @throws IllegalArgumentException if the position is on another grid
+     */
+    public int probe(BoardView position) {
+        int i = regionIndex(position);
+        return i < 0 ? UNKNOWN : get(index(i, unvisited(position)));
+    }
+
+    /**
+     * A shortest line to get stuck from {@code position}, or null unless
+     * {@link #probe} is exact there.
+     */
+    public List<Move> line(BoardView position) {
+        int i = regionIndex(position);
+        if (i < 0) return null;
+        int unvisited = unvisited(position);
+        int distance = get(index(i, unvisited));
+        if (distance >= AT_LEAST) return null;
+
+        List<Move> line = new ArrayList<>(distance);
+        while (distance > 0) {
+            for (int d = 0; d < 8; d++) {
+                int path = paths[i * 8 + d];
+                if (path == 0 || (unvisited & path) != path) continue;
+                int target = targets[i * 8 + d];
+                if (get(index(target, unvisited & ~path)) == distance - 1) {
+                    line.add(Move.of(d));
+                    i = target;
+                    unvisited &= ~path;
+                    break;
+                }
+            }
+            distance--;
+        }
+        return line;
+    }
+
+    /** First move of {@link #line}, or -1. */
+    public int bestDirection(BoardView position) {
+        List<Move> line = line(position);
+        return line == null || line.isEmpty() ? -1 : line.get(0).getDirection();
+    }
+
+    // Region index of the player, or -1 if the table does not apply to the position
+    private int regionIndex(BoardView position) {
+        PackedGrid other = Board.behind(position).getGrid();
+        if (other != verified) {
+            if (other.getSize() != size || other.checksum() != checksum) {
+                throw new IllegalArgumentException("The tablebase was built for another grid");
+            }
+            verified = other;
+        }
+        int i = Arrays.binarySearch(cells, position.getPlayerRow() * size + position.getPlayerCol());
+        return i >= 0 && isSealed(position) ? i : -1;
+    }
+
+    private boolean isSealed(BoardView position) {
+        for (int[] path : exits) {
+            if (path == null) continue;
+            boolean blocked = false;
+            for (int k = 0; k < path.length && !blocked; k++) {
+                blocked = position.isVisited(path[k] / size, path[k] % size);
+            }
+            if (!blocked) return false;
+        }
+        return true;
+    }
+
+    private int unvisited(BoardView position) {
+        int bits = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (!position.isVisited(cells[i] / size, cells[i] % size)) {
+                bits |= 1 << i;
+            }
+        }
+        return bits;
+    }
+
+    // The player's own bit is always clear, so it is squeezed out of the index
+    private int index(int player, int unvisited) {
+        int low = (1 << player) - 1;
+        return player << restBits | unvisited & low | (unvisited >>> 1) & ~low;
+    }
+
+    private int get(int index) {
+        return data.get(index >>> 1) >>> ((index & 1) << 2) & 15;
+    }
+
+    private void set(int index, int value) {
+        int shift = (index & 1) << 2;
+        data.put(index >>> 1, (byte) (data.get(index >>> 1) & ~(15 << shift) | value << shift));
+    }
+
+    // 🔁 Layer by layer: states with n unvisited cells only need those with fewer
+    private void fill(ForkJoinPool pool) {
+        for (int layer = 0; layer <= restBits; layer++) {
+            pool.invoke(new LayerTask(layer, 0, 1 << restBits));
+        }
+    }
+
+    /**
+     * Computes every state whose other unvisited cells ({@code rest}) fall in
+     * {@code [from, to)} and number {@code layer}. The two states sharing a byte
+     * differ in the lowest rest bit, so they are never in the same layer and
+     * tasks never write the same byte at once.
+     */
+    private final class LayerTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int layer;
+        private final int from;
+        private final int to;
+
+        LayerTask(int layer, int from, int to) {
+            this.layer = layer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK) {
+                int mid = (from + to) >>> 1;
+                ForkJoinTask.invokeAll(new LayerTask(layer, from, mid), new LayerTask(layer, mid, to));
+                return;
+            }
+            for (int rest = from; rest < to; rest++) {
+                if (Integer.bitCount(rest) != layer) continue;
+                for (int i = 0; i < cells.length; i++) {
+                    int low = (1 << i) - 1;
+                    int unvisited = rest & low | (rest & ~low) << 1;
+                    set(i << restBits | rest, distance(i, unvisited));
+                }
+            }
+        }
+
+        private int distance(int i, int unvisited) {
+            int best = -1;
+            for (int d = 0; d < 8; d++) {
+                int path = paths[i * 8 + d];
+                if (path == 0 || (unvisited & path) != path) continue;
+                int next = Tablebase.this.get(index(targets[i * 8 + d], unvisited & ~path));
+                if (best < 0 || next < best) {
+                    best = next;
+                }
+            }
+            return best < 0 ? 0 : Math.min(best + 1, AT_LEAST);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3 || !(args[0].equals("build") || args[0].equals("probe"))) {
+            System.err.println("Usage: java game.Tablebase build <boardFile> <tableFile> [all|moves] [threads]");
+            System.err.println("       java game.Tablebase probe <boardFile> <tableFile> [moves]");
+            return;
+        }
+
+        Tester.BoardData data = Tester.loadBoardData(args[1]);
+        Board board = new Board(data.grid, data.startRow, data.startCol);
+        String moves = args.length > 3 ? args[3] : "";
+        boolean whole = moves.equals("all");
+        for (String name : whole || moves.isEmpty() ? new String[0] : moves.split(",")) {
+            int direction = 0;
+            while (direction < 8 && !Move.of(direction).toString().equalsIgnoreCase(name.trim())) {
+                direction++;
+            }
+            if (direction == 8 || !board.applyMove(direction)) {
+                System.err.println("🚫 " + name + " is not a legal move after " + board.getStepCount() + " moves.");
+                return;
+            }
+        }
+        Path file = Paths.get(args[2]);
+
+        Tablebase table;
+        if (args[0].equals("build")) {
+            int[] region = whole ? (data.size * data.size <= MAX_CELLS ? wholeGrid(data.size) : null)
+                    : liveRegion(board, MAX_CELLS);
+            if (region == null) {
+                System.err.println("🚫 More than " + MAX_CELLS + " cells are still in play; table a later position.");
+                return;
+            }
+            int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                long start = System.nanoTime();
+                table = generate(data.grid, region, file, pool);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                long states = (long) region.length << (region.length - 1);
+                System.out.printf("Built %s: %d cells, %,d states in %.2f s (%,.0f states/s on %d threads)%n",
+                        file, region.length, states, seconds, states / seconds, threads);
+            } finally {
+                pool.shutdownNow();
+            }
+        } else {
+            table = open(file, data.grid);
+        }
+
+        int distance = table.probe(board);
+        if (distance == UNKNOWN) {
+            System.out.println("📍 The position is outside the table.");
+        } else if (distance == AT_LEAST) {
+            System.out.println("At least " + AT_LEAST + " moves to get stuck.");
+        } else {
+            System.out.println(distance + " moves to get stuck: " + table.line(board));
+        }
+    }
+}
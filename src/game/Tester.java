@@ -3,21 +3,32 @@ package game;
 import java.io.*;
 
 public class Tester {
-    private static final boolean ENABLE_SNAPSHOTS = true; // ✅ Toggle snapshot saving
+    static final boolean ENABLE_SNAPSHOTS = true; // ✅ Toggle snapshot saving
+    static final long SOLVER_MARGIN_MILLIS = 1500; // ⏳ Headroom left before run_tests.sh kills us
+    static final long DEFAULT_SOLVER_MILLIS = 10_000; // ⏱️ Per board, unless -Dstuck.solverMillis says otherwise
 
     public static void main(String[] args) {
+        long startNanos = System.nanoTime();
         if (args.length < 2) {
             System.err.println("Usage: java game.Tester <boardFile> <studentID>");
+            System.err.println("       java game.Tester <packFile> <studentID> <boardId>");
             return;
         }
 
         String boardFile = args[0];
         String studentID = args[1];
+        Integer packBoardId = args.length > 2 ? Integer.valueOf(args[2]) : null;
 
-        // 1) Load the board data from disk
+        // 1) Load the board data from disk (a single board file, or one board out of a pack)
         BoardData data;
         try {
-            data = loadBoardData(boardFile);
+            if (packBoardId != null) {
+                try (BoardPack pack = BoardPack.open(boardFile)) {
+                    data = pack.readById(packBoardId);
+                }
+            } else {
+                data = loadBoardData(boardFile);
+            }
         } catch (IOException e) {
             System.err.println("Error loading board data: " + e.getMessage());
             return;
@@ -29,7 +40,8 @@ public class Tester {
         }
 
         // 2) Create a fresh board for this player's game
-        Board board = new Board(data.size, data.grid, data.startRow, data.startCol);
+        Board board = new Board(data.grid, data.startRow, data.startCol);
+        Board initialBoard = new Board(board); // Untouched copy for the solver
 
         // Ensure snapshot directory exists
         if (ENABLE_SNAPSHOTS) {
@@ -41,58 +53,65 @@ public class Tester {
         try {
             player = Referee.initializePlayer(studentID, board);
             if (player == null) {
-                System.out.println(studentID + " 1 9999"); // Disqualified players get only 1 step, max penalty
+                System.out.println(studentID + " 1 9999 9999 0"); // Disqualified players get only 1 step, max penalty
                 return;
             }
         } catch (Exception e) {
             System.err.println("Error initializing player " + studentID + ": " + e.getMessage());
-            System.out.println(studentID + " 1 9999"); // Fail-safe: Assign minimum step and large MinStep
+            System.out.println(studentID + " 1 9999 9999 0"); // Fail-safe: Assign minimum step and large MinStep
             return;
         }
 
         // 4) Run the game
-        int playerSteps = Referee.playGame(player, studentID, boardFile, ENABLE_SNAPSHOTS);
+        int boardId = packBoardId != null ? packBoardId : Referee.extractBoardNumber(boardFile);
+        int playerSteps = Referee.playGame(player, studentID, boardId, ENABLE_SNAPSHOTS,
+                MoveBudget.forBoardSize(initialBoard.getSize()));
+
+        // 5) Bound the minimum steps with whatever time run_tests.sh still allows
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        long solverBudget = Math.max(0, Math.min(solverBudgetMillis(data.size),
+                timeoutMillis(data.size) - elapsedMillis - SOLVER_MARGIN_MILLIS));
+        BoundEstimator.Bounds bounds = new BoundEstimator(initialBoard).estimate(solverBudget);
+        System.err.println("Min steps: lower " + bounds.getLower() + ", upper " + bounds.getUpper()
+                + (bounds.isExact() ? " (optimal)" : ", gap " + bounds.getGap()));
+
+        // 6) Print the step count and the bounds "lower upper gap" (graders score against upper)
+        System.out.println(studentID + " " + playerSteps + " " + bounds);
+    }
 
-        // 5) Estimate minimum steps as 1 (trivial lower bound) to use in grading formula
-        // In the future, this can be improved with AI, heuristics, or a brute-force solver
-        int minSteps = 1;
+    /**
+     * Time spent bounding the minimum steps of a board: {@code -Dstuck.solverMillis.<size>=<ms>}
+     * for one board size, else {@code -Dstuck.solverMillis=<ms>}, else {@code DEFAULT_SOLVER_MILLIS}
+     * or what the per-board timeout leaves, whichever is less.
+     */
+    static long solverBudgetMillis(int size) {
+        long fallback = Math.min(DEFAULT_SOLVER_MILLIS, timeoutMillis(size) - SOLVER_MARGIN_MILLIS);
+        return Long.getLong("stuck.solverMillis." + size, Long.getLong("stuck.solverMillis", fallback));
+    }
 
-        // 6) Print the final step count and minimum (shell script captures this)
-        System.out.println(studentID + " " + playerSteps + " " + minSteps);
+    // ⏱️ Mirrors the per-board timeout computed in run_tests.sh (capped at 300 seconds)
+    static long timeoutMillis(int size) {
+        double seconds = 0.4 * size * size + 2;
+        return seconds > 300 ? 300_000 : (long) seconds * 1000;
     }
 
-    // ✅ This method properly loads board data from a file
-    private static BoardData loadBoardData(String filename) throws IOException {
+    // ✅ This method properly loads board data from a file (text or binary)
+    static BoardData loadBoardData(String filename) throws IOException {
         File file = new File(filename);
         if (!file.exists() || file.length() == 0) {
             throw new IOException("Board file " + filename + " is missing or empty.");
         }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
-            int size = Integer.parseInt(br.readLine().trim());
-            String[] start = br.readLine().split("\\s+");
-            int startRow = Integer.parseInt(start[0]);
-            int startCol = Integer.parseInt(start[1]);
-            int[][] grid = new int[size][size];
-
-            for (int r = 0; r < size; r++) {
-                String[] rowVals = br.readLine().split("\\s+");
-                for (int c = 0; c < size; c++) {
-                    grid[r][c] = Integer.parseInt(rowVals[c]);
-                }
-            }
-
-            return new BoardData(size, grid, startRow, startCol);
-        }
+        return BoardFormat.read(filename); // Text or binary, detected from the first bytes
     }
 
     // ✅ Helper class for board data storage
     static class BoardData {
         int size;
-        int[][] grid;
+        PackedGrid grid; // 4 bits per cell, so even 10,000 x 10,000 boards load in 50 MB
         int startRow, startCol;
-        BoardData(int s, int[][] g, int r, int c) {
-            size = s; grid = g; startRow = r; startCol = c;
+        BoardData(PackedGrid g, int r, int c) {
+            size = g.getSize(); grid = g; startRow = r; startCol = c;
         }
     }
 }
@@ -0,0 +1,407 @@
+package game;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Runs every student in {@code students.txt} against every board in a single JVM.
+ * Boards come either from a directory of {@code board_<size>x<size>_<id>.dat}
+ * files or from a {@link BoardPack}.
+ * <p>
+ * Each student's {@code players.Player<ID>} is loaded through its own
+ * {@link PlayerClassLoader}, and games run concurrently on a pool sized to the
+ * available cores. Per-move and init timeouts are the ones {@link Referee}
+ * enforces; each game as a whole gets the same limit run_tests.sh gives a
+ * Tester process, and overrunning it counts as a timeout/crash. Results are
+ * written to {@code results/Player<ID>.log} and {@code results/TotalScores.txt}
+ * in the format run_tests.sh has always produced.
+ */
+public class Tournament {
+    private static final String RESULTS_DIR = "results";
+    private static final String CACHE_DIR = "cache";
+    private static final boolean PLAYER_PROCESSES = Boolean.getBoolean("stuck.playerProcesses");
+
+    public static void main(String[] args) throws Exception {
+        String boardsDir = args.length > 0 ? args[0] : "boards"; // Directory or pack file
+        String studentsFile = args.length > 1 ? args[1] : "students.txt";
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        List<String> students = readStudents(studentsFile);
+        List<BoardEntry> boards = BoardPack.isPack(boardsDir) ? readPack(boardsDir) : findBoards(boardsDir);
+        if (boards.isEmpty()) {
+            System.err.println("No boards found in " + boardsDir);
+            return;
+        }
+
+        new File(RESULTS_DIR).mkdirs();
+        if (Tester.ENABLE_SNAPSHOTS) {
+            new File("snapshots").mkdirs();
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ScheduledExecutorService watchdogs = Executors.newSingleThreadScheduledExecutor();
+        try (ResultCache cache = Boolean.getBoolean("stuck.noCache") ? null : ResultCache.open(new File(CACHE_DIR))) {
+            solveBoards(boards, threads, cache);
+            runGames(students, boards, pool, watchdogs, cache);
+        } finally {
+            pool.shutdownNow();
+            watchdogs.shutdownNow();
+        }
+    }
+
+    // Several boards at a time, so one board's sequential phases overlap another's exact search on the shared pool
+    private static void solveBoards(List<BoardEntry> boards, int threads, ResultCache cache) throws Exception {
+        long totalMillis = 0;
+        for (BoardEntry entry : boards) {
+            totalMillis += Tester.solverBudgetMillis(entry.size);
+        }
+        System.out.println("Solving " + boards.size() + " boards on " + threads + " threads, with at most "
+                + (totalMillis + 999) / 1000 + " s of solver time in total...");
+        ForkJoinPool solverPool = new ForkJoinPool(threads);
+        ExecutorService boardPool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> lines = new ArrayList<>();
+            for (BoardEntry entry : boards) {
+                lines.add(boardPool.submit(() -> solveBoard(entry, solverPool, cache)));
+            }
+            for (Future<String> line : lines) {
+                System.out.println(line.get());
+            }
+        } finally {
+            boardPool.shutdownNow();
+            solverPool.shutdownNow();
+        }
+    }
+
+    private static String solveBoard(BoardEntry entry, ForkJoinPool solverPool, ResultCache cache) {
+        long budget = Tester.solverBudgetMillis(entry.size);
+        String key = cache == null ? null : cache.solveKey(entry.hash, budget);
+        ResultCache.SolveEntry cached = cache == null ? null : cache.getSolve(key);
+        int lower, upper;
+        if (cached != null) {
+            lower = cached.lowerBound;
+            upper = cached.upperBound;
+        } else {
+            long start = System.nanoTime();
+            BoundEstimator.Bounds bounds = new BoundEstimator(entry.newBoard(), solverPool).estimate(budget);
+            lower = bounds.getLower();
+            upper = bounds.getUpper();
+            if (cache != null) {
+                cache.put(key, new ResultCache.SolveEntry(lower, upper, (System.nanoTime() - start) / 1_000_000L));
+            }
+        }
+        entry.minSteps = upper; // Scores are against the best line found
+        entry.minStepsGap = upper - lower;
+        return entry.label + ": minSteps in [" + lower + ", " + upper + "]"
+                + (lower == upper ? " (optimal)" : ", gap " + (upper - lower)) + (cached != null ? " (cached)" : "");
+    }
+
+    private static void runGames(List<String> students, List<BoardEntry> boards, ExecutorService pool,
+                                 ScheduledExecutorService watchdogs, ResultCache cache) throws Exception {
+        Map<String, List<Future<GameResult>>> games = new LinkedHashMap<>();
+        MetricsReport metrics = new MetricsReport();
+        int cached = 0, played = 0;
+        for (String studentID : students) {
+            ClassLoader loader = PLAYER_PROCESSES ? null : new PlayerClassLoader(Tournament.class.getClassLoader());
+            String playerHash = cache == null ? null : ResultCache.playerHash(studentID);
+            List<Future<GameResult>> results = new ArrayList<>();
+            List<Consumer<PlayerProcess>> sequential = new ArrayList<>(); // Games for this student's worker JVM
+            List<CompletableFuture<GameResult>> pending = new ArrayList<>();
+            for (BoardEntry entry : boards) {
+                String key = cache == null ? null : cache.gameKey(playerHash, entry.hash, MoveBudget.forBoardSize(entry.size));
+                ResultCache.GameEntry hit = cache == null ? null : cache.getGame(key);
+                if (hit != null) {
+                    // ✅ Same classes, board and rules: replay the stored outcome against today's minSteps
+                    results.add(CompletableFuture.completedFuture(GameResult.replay(hit, entry.minSteps)));
+                    cached++;
+                } else if (PLAYER_PROCESSES) {
+                    CompletableFuture<GameResult> result = new CompletableFuture<>();
+                    sequential.add(process -> result.complete(store(cache, key,
+                            playGame(studentID, entry, null, process, watchdogs, metrics))));
+                    pending.add(result);
+                    results.add(result);
+                    played++;
+                } else {
+                    results.add(pool.submit(() -> store(cache, key, playGame(studentID, entry, loader, null, watchdogs, metrics))));
+                    played++;
+                }
+            }
+            if (!sequential.isEmpty()) {
+                pool.submit(() -> playInWorkerProcess(studentID, sequential, pending));
+            }
+            games.put(studentID, results);
+        }
+        if (cache != null) {
+            System.out.println("Result cache: " + cached + " games reused, " + played + " to play.");
+        }
+
+        try (PrintWriter totals = new PrintWriter(new FileWriter(new File(RESULTS_DIR, "TotalScores.txt"), UTF_8))) {
+            for (Map.Entry<String, List<Future<GameResult>>> student : games.entrySet()) {
+                String studentID = student.getKey();
+                double totalPercentage = 0;
+                File logFile = new File(RESULTS_DIR, "Player" + studentID + ".log");
+                try (PrintWriter log = new PrintWriter(new FileWriter(logFile, UTF_8))) {
+                    for (int i = 0; i < boards.size(); i++) {
+                        GameResult result = student.getValue().get(i).get();
+                        log.println(result.logLine(boards.get(i)));
+                        totalPercentage += result.percentage;
+                    }
+                }
+                totals.println(String.format(Locale.ROOT, "%s %.2f%%", studentID, totalPercentage / boards.size()));
+                totals.flush();
+            }
+        }
+        metrics.writeJson(new File(RESULTS_DIR, "metrics.json"));
+        metrics.writePrometheus(new File(RESULTS_DIR, "metrics.prom"));
+        System.out.println("Done! Check 'results/TotalScores.txt' and 'snapshots/' for full gameplay.");
+    }
+
+    private static GameResult store(ResultCache cache, String key, GameResult result) {
+        if (cache != null && result.repeatable) {
+            cache.put(key, new ResultCache.GameEntry(result.outcome, result.yourSteps, result.percentage,
+                    result.wallMillis));
+        }
+        return result;
+    }
+
+    // Plays one student's games in turn on a single worker JVM
+    private static void playInWorkerProcess(String studentID, List<Consumer<PlayerProcess>> games,
+                                            List<CompletableFuture<GameResult>> results) {
+        PlayerProcess process = new PlayerProcess(studentID);
+        try {
+            for (Consumer<PlayerProcess> game : games) {
+                game.accept(process);
+            }
+        } catch (RuntimeException | Error e) {
+            System.err.println("❌ Worker games stopped for Player " + studentID + " (" + process.workerStatus()
+                    + "): " + e);
+            throw e;
+        } finally {
+            int lost = 0;
+            for (CompletableFuture<GameResult> result : results) {
+                if (result.complete(GameResult.crashed())) lost++; // Only games that never ran
+            }
+            if (lost > 0) {
+                System.err.println("❌ " + lost + " games of Player " + studentID + " never ran and count as crashed ("
+                        + process.workerStatus() + ")");
+            }
+            process.close();
+        }
+    }
+
+    private static GameResult playGame(String studentID, BoardEntry entry, ClassLoader loader, PlayerProcess process,
+                                       ScheduledExecutorService watchdogs, MetricsReport metrics) {
+        System.out.println("Testing " + studentID + " on " + entry.label + "...");
+        long start = System.nanoTime();
+        MoveMetrics moves = new MoveMetrics();
+        GameResult result = runGame(studentID, entry, loader, process, watchdogs, moves);
+        result.wallMillis = (System.nanoTime() - start) / 1_000_000L;
+        if (moves.getGames() > 0) {
+            metrics.add(studentID, entry.size, moves);
+        }
+        return result;
+    }
+
+    // In this JVM through loader, or on the student's worker JVM when process is set
+    private static GameResult runGame(String studentID, BoardEntry entry, ClassLoader loader, PlayerProcess process,
+                                      ScheduledExecutorService watchdogs, MoveMetrics moves) {
+        Watchdog watchdog = new Watchdog(Thread.currentThread());
+        ScheduledFuture<?> timer = watchdogs.schedule(watchdog::expire,
+                Tester.timeoutMillis(entry.size), TimeUnit.MILLISECONDS);
+        try {
+            Board board = entry.newBoard();
+            MoveBudget budget = MoveBudget.forBoardSize(entry.size);
+            GameResult result;
+            // Only outcomes a rerun would repeat are cached: a game with a timeout, a lost worker
+            // JVM or a setup that merely ran slow may go differently on a quieter machine
+            ClassLoader classes = loader != null ? loader : Tournament.class.getClassLoader();
+            if (process != null) {
+                if (!process.startGame(board)) {
+                    result = GameResult.disqualified(!Referee.hasPlayerClass(studentID, classes));
+                } else {
+                    int steps = Referee.playGame(process, board, studentID, entry.index, Tester.ENABLE_SNAPSHOTS,
+                            budget, moves);
+                    result = GameResult.finished(steps, entry.minSteps, moves.getTimeouts() == 0 && !process.lostWorker());
+                }
+            } else {
+                Player player = Referee.initializePlayer(studentID, board, loader);
+                if (player == null) {
+                    result = GameResult.disqualified(!Referee.hasPlayerClass(studentID, classes));
+                } else {
+                    int steps = Referee.playGame(player, studentID, entry.index, Tester.ENABLE_SNAPSHOTS, budget, moves);
+                    result = GameResult.finished(steps, entry.minSteps, moves.getTimeouts() == 0);
+                }
+            }
+            return watchdog.finish() ? GameResult.crashed() : result;
+        } catch (Throwable t) {
+            watchdog.finish();
+            System.err.println("❌ Game crashed for Player " + studentID + " on " + entry.label + ": " + t);
+            return GameResult.crashed();
+        } finally {
+            timer.cancel(false);
+        }
+    }
+
+    static int score(int yourSteps, int minSteps) {
+        int movePenalty = minSteps - yourSteps;
+        return Math.max(0, 100 - 5 * movePenalty);
+    }
+
+    private static List<String> readStudents(String filename) throws IOException {
+        List<String> students = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (!line.isBlank()) {
+                    students.add(line.trim());
+                }
+            }
+        }
+        return students;
+    }
+
+    private static List<BoardEntry> findBoards(String dir) throws IOException {
+        List<BoardEntry> boards = new ArrayList<>();
+        File[] files = new File(dir).listFiles();
+        if (files == null) return boards;
+
+        for (File file : files) {
+            Matcher m = Referee.BOARD_NAME.matcher(file.getName());
+            if (m.matches()) {
+                boards.add(new BoardEntry(file.getPath(), Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)),
+                        Tester.loadBoardData(file.getPath())));
+            }
+        }
+        boards.sort(BoardEntry.ORDER);
+        return boards;
+    }
+
+    private static List<BoardEntry> readPack(String packFile) throws IOException {
+        List<BoardEntry> boards = new ArrayList<>();
+        try (BoardPack pack = BoardPack.open(packFile)) {
+            for (int i = 0; i < pack.size(); i++) {
+                BoardPack.Entry e = pack.getEntry(i);
+                boards.add(new BoardEntry(packFile + "#" + e.id, e.size, e.id, pack.read(i)));
+            }
+        }
+        boards.sort(BoardEntry.ORDER);
+        return boards;
+    }
+
+    private static final class BoardEntry {
+        static final Comparator<BoardEntry> ORDER =
+                Comparator.comparingInt((BoardEntry b) -> b.size).thenComparingInt(b -> b.index);
+
+        final String label;
+        final int size;
+        final int index;
+        final Tester.BoardData data;
+        final String hash;
+        volatile int minSteps;
+        volatile int minStepsGap;
+
+        BoardEntry(String label, int size, int index, Tester.BoardData data) {
+            this.label = label;
+            this.size = size;
+            this.index = index;
+            this.data = data;
+            this.hash = ResultCache.boardHash(data);
+        }
+
+        private Board template;
+
+        // The grid and its jump table are never modified by Board, so every game copies one template
+        synchronized Board newBoard() {
+            if (template == null) {
+                template = new Board(data.grid, data.startRow, data.startCol);
+            }
+            return new Board(template);
+        }
+    }
+
+    private static final class GameResult {
+        private static final int DISQUALIFIED_MIN_STEPS = 9999; // Same penalty Tester prints for disqualified players
+
+        final ResultCache.Outcome outcome;
+        final int yourSteps;
+        final int minSteps;
+        final int percentage;
+        final boolean repeatable; // A rerun with the same classes and board would end the same way
+        long wallMillis;
+
+        private GameResult(ResultCache.Outcome outcome, int yourSteps, int minSteps, int percentage,
+                           boolean repeatable) {
+            this.outcome = outcome;
+            this.yourSteps = yourSteps;
+            this.minSteps = minSteps;
+            this.percentage = percentage;
+            this.repeatable = repeatable;
+        }
+
+        static GameResult finished(int yourSteps, int minSteps, boolean repeatable) {
+            return new GameResult(ResultCache.Outcome.FINISHED, yourSteps, minSteps, score(yourSteps, minSteps),
+                    repeatable);
+        }
+
+        static GameResult crashed() {
+            return new GameResult(ResultCache.Outcome.CRASHED, 1, 0, 0, false);
+        }
+
+        // Repeatable only when the class cannot be loaded or constructed at all, not on a slow or failing constructor
+        static GameResult disqualified(boolean repeatable) {
+            return new GameResult(ResultCache.Outcome.DISQUALIFIED, 1, DISQUALIFIED_MIN_STEPS,
+                    score(1, DISQUALIFIED_MIN_STEPS), repeatable);
+        }
+
+        // Only finished games are rescored against the board's current minSteps
+        static GameResult replay(ResultCache.GameEntry hit, int minSteps) {
+            switch (hit.outcome) {
+                case FINISHED:
+                    return finished(hit.yourSteps, minSteps, true);
+                case DISQUALIFIED:
+                    return disqualified(true);
+                default:
+                    return crashed();
+            }
+        }
+
+        String logLine(BoardEntry entry) {
+            String game = entry.size + " x " + entry.size + " - Game " + entry.index + ": ";
+            if (outcome == ResultCache.Outcome.CRASHED) {
+                return game + "1 move (timeout/crash) (0.00%)";
+            }
+            String gap = entry.minStepsGap > 0 ? " (upper bound, gap " + entry.minStepsGap + ")" : "";
+            return game + "YourSteps=" + yourSteps + ", MinSteps=" + minSteps + gap + " → Score=" + percentage + "%";
+        }
+    }
+
+    /** Interrupts a game that outlives its whole-game limit, as `timeout` does to a Tester process. */
+    private static final class Watchdog {
+        private final Thread thread;
+        private boolean finished;
+        private boolean expired;
+
+        Watchdog(Thread thread) {
+            this.thread = thread;
+        }
+
+        synchronized void expire() {
+            if (!finished) {
+                expired = true;
+                thread.interrupt();
+            }
+        }
+
+        /** Marks the game done, clears any pending interrupt, and reports whether it expired. */
+        synchronized boolean finish() {
+            finished = true;
+            Thread.interrupted();
+            return expired;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package game;
+
+/**
+ * Zobrist keys for board positions. Keys are derived on the fly from the cell
+ * index with the SplitMix64 finaliser instead of being stored in a table, so
+ * they cost no memory on large boards and agree between every Board instance.
+ */
+final class Zobrist {
+    private static final long HIGH_SALT = 0x632BE59BD9B4E019L;
+
+    private Zobrist() {
+    }
+
+    static long visitedKey(int cell) {
+        return mix(cell * 2L);
+    }
+
+    static long playerKey(int cell) {
+        return mix(cell * 2L + 1);
+    }
+
+    /** Independent key family for the upper half of 128-bit hashes. */
+    static long visitedKeyHigh(int cell) {
+        return mix((cell * 2L) ^ HIGH_SALT);
+    }
+
+    static long playerKeyHigh(int cell) {
+        return mix((cell * 2L + 1) ^ HIGH_SALT);
+    }
+
+    static long mix(long z) {
+        z = (z + 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 30)) * 0x94D049BB133111EBL;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
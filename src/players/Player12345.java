@@ -5,7 +5,7 @@ import java.util.List;
 
 public class Player12345 extends Player {
 
-    public Player12345(Board board) {
+    public Player12345(BoardView board) {
         super(board);
     }
 
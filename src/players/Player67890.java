@@ -8,7 +8,7 @@ import java.util.Random;
 public class Player67890 extends Player {
     private final Random random;
 
-    public Player67890(Board board) {
+    public Player67890(BoardView board) {
         super(board);
         this.random = new Random();
     }
@@ -0,0 +1,186 @@
+package players;
+
+import game.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Reference player: Monte Carlo rollouts on every core within the move budget.
+ * <p>
+ * Each {@code nextMove()} runs rollouts from the current position on a
+ * fork-join pool until {@code THINK_MILLIS} have passed. A rollout plays to the
+ * end, choosing the move with the fewest exits half of the time and a random
+ * move otherwise. The shortest complete line found so far is kept across moves,
+ * so the player keeps following it unless a rollout finds a shorter one.
+ * Once at most {@code ENDGAME_CELLS} cells are still in play, it builds a
+ * {@link Tablebase} of them and plays perfectly from then on.
+ * List it in {@code students.txt} as {@code MonteCarlo}.
+ * <p>
+ * {@code -Dstuck.mcMillis=<ms>} changes the thinking time (default 800, which
+ * leaves headroom under Referee's one-second limit) and
+ * {@code -Dstuck.mcThreads=<n>} the number of workers.
+ */
+public class PlayerMonteCarlo extends Player {
+    private static final long THINK_MILLIS = Long.getLong("stuck.mcMillis", 800);
+    private static final int THREADS = Integer.getInteger("stuck.mcThreads", Runtime.getRuntime().availableProcessors());
+    private static final ForkJoinPool POOL = new ForkJoinPool(THREADS); // Shared by all games of this player
+    private static final int ENDGAME_CELLS = 18; // A table of 2.4M states, built in well under the move budget
+
+    private final SplittableRandom seeds = new SplittableRandom(0x5EEDL);
+    private int[] bestLine = new int[0]; // Shortest known line from the current position, as directions
+    private int bestFrom;                // Moves of bestLine already played
+    private int expectedStep;            // Board step count bestLine is valid for
+    private long totalRollouts;
+    private long totalNanos;
+    private Tablebase endgame;
+
+    public PlayerMonteCarlo(BoardView board) {
+        super(board);
+    }
+
+    @Override
+    public Move nextMove() {
+        long start = System.nanoTime();
+        long deadline = start + THINK_MILLIS * 1_000_000L;
+        int mask = board.legalMoveMask();
+        if (mask == 0) return null;
+        int perfect = endgameMove();
+        if (perfect >= 0) return Move.of(perfect);
+        if (board.getStepCount() != expectedStep) {
+            bestLine = new int[0]; // Someone moved without us; the stored line no longer applies
+            bestFrom = 0;
+        }
+
+        if (Integer.bitCount(mask) > 1) {
+            search(deadline);
+        }
+        if (bestFrom >= bestLine.length) {
+            bestLine = new int[]{Integer.numberOfTrailingZeros(mask)}; // No rollout finished in time
+            bestFrom = 0;
+        }
+
+        int direction = bestLine[bestFrom++];
+        expectedStep = board.getStepCount() + 1;
+        totalNanos += System.nanoTime() - start;
+        if (bestFrom == bestLine.length) {
+            System.err.printf("📍 PlayerMonteCarlo: %d rollouts in %.2f s (%.0f rollouts/s on %d threads)%n",
+                    totalRollouts, totalNanos / 1e9, totalRollouts / Math.max(totalNanos / 1e9, 1e-9), THREADS);
+        }
+        return Move.of(direction);
+    }
+
+    // The table's move, or -1 while too many cells are in play (or the table only knows "15 or more")
+    private int endgameMove() {
+        if (endgame == null || endgame.probe(board) == Tablebase.UNKNOWN) {
+            int[] region = Tablebase.liveRegion(board, ENDGAME_CELLS);
+            endgame = region == null ? null : Tablebase.build(board, region, POOL);
+        }
+        return endgame == null ? -1 : endgame.bestDirection(board);
+    }
+
+    private void search(long deadline) {
+        List<Callable<Worker>> workers = new ArrayList<>(THREADS);
+        int cutoff = bestFrom < bestLine.length ? bestLine.length - bestFrom : Integer.MAX_VALUE;
+        for (int i = 0; i < THREADS; i++) {
+            Worker worker = new Worker(board.fork(), seeds.split(), cutoff);
+            workers.add(() -> worker.run(deadline));
+        }
+
+        try {
+            for (Future<Worker> future : POOL.invokeAll(workers)) {
+                Worker worker;
+                try {
+                    worker = future.get();
+                } catch (ExecutionException e) {
+                    System.err.println("📍 PlayerMonteCarlo: a rollout worker failed: " + e.getCause());
+                    continue; // The other workers' lines still count
+                }
+                totalRollouts += worker.rollouts;
+                if (worker.best != null && worker.best.length < cutoff) {
+                    bestLine = worker.best;
+                    bestFrom = 0;
+                    cutoff = bestLine.length;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Referee gave up on us; keep whatever line we have
+        }
+    }
+
+    /** One thread's rollouts from a private copy of the position. */
+    private static final class Worker {
+        private final Board root;
+        private final SplittableRandom random;
+        private final int[] line;
+        private int[] best;
+        private int bestLength;
+        private long rollouts;
+
+        Worker(Board root, SplittableRandom random, int cutoff) {
+            this.root = root;
+            this.random = random;
+            this.line = new int[root.getSize() * root.getSize()];
+            this.bestLength = cutoff;
+        }
+
+        Worker run(long deadline) {
+            long[] undo = new long[line.length];
+            while (System.nanoTime() < deadline) {
+                int length = rollout(undo);
+                rollouts++;
+                if (length > 0 && length < bestLength) {
+                    bestLength = length;
+                    best = Arrays.copyOf(line, length);
+                }
+            }
+            return this;
+        }
+
+        // Plays to the end from root, undoing afterwards; returns the line length, or 0 if cut off
+        private int rollout(long[] undo) {
+            int length = 0;
+            int mask = root.legalMoveMask();
+            while (mask != 0 && length + 1 < bestLength) {
+                int direction = random.nextBoolean() ? fewestExits(mask) : randomBit(mask);
+                undo[length] = root.makeMove(direction);
+                line[length++] = direction;
+                mask = root.legalMoveMask();
+            }
+            boolean finished = mask == 0;
+            for (int i = length - 1; i >= 0; i--) {
+                root.undoMove(undo[i]);
+            }
+            return finished ? length : 0;
+        }
+
+        private int fewestExits(int mask) {
+            int chosen = -1;
+            int fewest = Integer.MAX_VALUE;
+            for (int m = mask; m != 0; m &= m - 1) {
+                int direction = Integer.numberOfTrailingZeros(m);
+                long undo = root.makeMove(direction);
+                int exits = Integer.bitCount(root.legalMoveMask());
+                root.undoMove(undo);
+                if (exits < fewest) {
+                    fewest = exits;
+                    chosen = direction;
+                }
+            }
+            return chosen;
+        }
+
+        private int randomBit(int mask) {
+            int pick = random.nextInt(Integer.bitCount(mask));
+            for (int m = mask; ; m &= m - 1) {
+                if (pick-- == 0) return Integer.numberOfTrailingZeros(m);
+            }
+        }
+    }
+}
@@ -6,7 +6,7 @@ import java.util.List;
 public class PlayerTimeoutMove extends Player {
     private int moveCounter = 0;
 
-    public PlayerTimeoutMove(Board board) {
+    public PlayerTimeoutMove(BoardView board) {
         super(board);
     }
 
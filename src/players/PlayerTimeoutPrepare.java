@@ -4,7 +4,7 @@ package players;
 import game.*;
 
 public class PlayerTimeoutPrepare extends Player {
-    public PlayerTimeoutPrepare(Board board) {
+    public PlayerTimeoutPrepare(BoardView board) {
         super(board);
 
         // Intentionally exceed preparation timeout